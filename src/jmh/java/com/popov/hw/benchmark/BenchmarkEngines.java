@@ -0,0 +1,64 @@
+package com.popov.hw.benchmark;
+
+import com.popov.hw.config.CryptoProperties;
+import com.popov.hw.enums.CiphertextFormat;
+import com.popov.hw.enums.CryptoAlgorithm;
+import com.popov.hw.service.crypto.CryptoService;
+import com.popov.hw.service.crypto.ElGamalCryptoService;
+import com.popov.hw.service.crypto.EllipticCurveCryptoService;
+import com.popov.hw.service.crypto.RabinCryptoService;
+import com.popov.hw.service.crypto.RsaCryptoService;
+import com.popov.hw.service.crypto.ShamirCryptoService;
+import com.popov.hw.service.crypto.context.KeyContextCache;
+import com.popov.hw.service.crypto.ephemeral.EphemeralPrecomputer;
+import com.popov.hw.service.crypto.pipeline.BlockCipherEngine;
+import com.popov.hw.service.crypto.pipeline.MappedBlockProcessor;
+import com.popov.hw.service.crypto.pipeline.ParallelBlockPipeline;
+import com.popov.hw.service.crypto.random.NonceSupply;
+import com.popov.hw.service.crypto.threepass.ThreePassExchange;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Wires the crypto services by hand, without starting the Spring context and
+ * its console runner.
+ */
+public final class BenchmarkEngines implements AutoCloseable {
+
+    private final ForkJoinPool cryptoPool;
+    private final BlockCipherEngine engine;
+    private final CryptoProperties properties;
+    private final NonceSupply nonceSupply;
+    private final EphemeralPrecomputer precomputer;
+    private final KeyContextCache cache;
+
+    public BenchmarkEngines(int parallelism, boolean memoryMapped, boolean rabinRedundancy) {
+        this.properties = new CryptoProperties(
+                parallelism, 0, CiphertextFormat.CONTAINER, memoryMapped, 0, rabinRedundancy, 0, 0, 0);
+        this.cryptoPool = new ForkJoinPool(properties.parallelism());
+        this.engine = new BlockCipherEngine(
+                new ParallelBlockPipeline(cryptoPool, properties),
+                new MappedBlockProcessor(cryptoPool),
+                properties);
+        this.nonceSupply = new NonceSupply(properties);
+        this.precomputer = new EphemeralPrecomputer(properties);
+        this.cache = new KeyContextCache(properties);
+    }
+
+    public CryptoService service(CryptoAlgorithm algorithm) {
+        return switch (algorithm) {
+            case RSA -> new RsaCryptoService(engine, cache);
+            case EL_GAMAL -> new ElGamalCryptoService(engine, nonceSupply, precomputer, cache);
+            case SHAMIR -> new ShamirCryptoService(engine, new ThreePassExchange(properties), cache);
+            case RABIN -> new RabinCryptoService(engine, properties, cache);
+            case ELLIPTIC_CURVE -> new EllipticCurveCryptoService(engine, nonceSupply, precomputer, cache);
+        };
+    }
+
+    @Override
+    public void close() {
+        cryptoPool.shutdown();
+        nonceSupply.close();
+        precomputer.close();
+    }
+}
@@ -0,0 +1,179 @@
+package com.popov.hw.benchmark;
+
+import com.popov.hw.enums.CryptoAlgorithm;
+import com.popov.hw.math.ec.ECMath;
+import com.popov.hw.model.ECCurve;
+import com.popov.hw.model.ECPoint;
+import com.popov.hw.model.ElGamalParameters;
+import com.popov.hw.model.EllipticCurveParameters;
+import com.popov.hw.model.RabinParameters;
+import com.popov.hw.model.RsaParameters;
+import com.popov.hw.model.ShamirParameters;
+import lombok.experimental.UtilityClass;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+/**
+ * Deterministic key material for benchmarks. Keys are derived from a fixed
+ * seed, so runs on different commits measure exactly the same inputs.
+ */
+@UtilityClass
+public class BenchmarkKeys {
+
+    private static final long SEED = 0x4B4149L;
+    private static final BigInteger FOUR = BigInteger.valueOf(4);
+    private static final BigInteger THREE = BigInteger.valueOf(3);
+    private static final BigInteger RSA_EXPONENT = BigInteger.valueOf(65537);
+
+    /**
+     * Returns the parameters for {@code algorithm} with a modulus of
+     * {@code bits} bits, plus the modulus itself for block size calculations.
+     */
+    public static KeyMaterial generate(CryptoAlgorithm algorithm, int bits) {
+        Random random = new Random(SEED ^ ((long) algorithm.ordinal() << 32) ^ bits);
+        return switch (algorithm) {
+            case RSA -> rsa(bits, random);
+            case EL_GAMAL -> elGamal(bits, random);
+            case SHAMIR -> shamir(bits, random);
+            case RABIN -> rabin(bits, random);
+            case ELLIPTIC_CURVE -> ellipticCurve(bits, random);
+        };
+    }
+
+    private static KeyMaterial rsa(int bits, Random random) {
+        BigInteger p;
+        BigInteger q;
+        BigInteger phi;
+        do {
+            p = BigInteger.probablePrime(bits / 2, random);
+            q = BigInteger.probablePrime(bits - bits / 2, random);
+            phi = p.subtract(BigInteger.ONE).multiply(q.subtract(BigInteger.ONE));
+        } while (p.equals(q) || !phi.gcd(RSA_EXPONENT).equals(BigInteger.ONE));
+
+        BigInteger n = p.multiply(q);
+        RsaParameters params = RsaParameters.builder()
+                .e(RSA_EXPONENT)
+                .p(p)
+                .q(q)
+                .n(n)
+                .d(RSA_EXPONENT.modInverse(phi))
+                .build();
+        return new KeyMaterial(params, params, n);
+    }
+
+    private static KeyMaterial elGamal(int bits, Random random) {
+        BigInteger p = BigInteger.probablePrime(bits, random);
+        BigInteger g = BigInteger.TWO;
+        BigInteger x = randomBelow(p.subtract(BigInteger.ONE), random);
+        ElGamalParameters params = ElGamalParameters.builder()
+                .p(p)
+                .g(g)
+                .x(x)
+                .publicKey(g.modPow(x, p))
+                .build();
+        return new KeyMaterial(params, params, p);
+    }
+
+    private static KeyMaterial shamir(int bits, Random random) {
+        BigInteger p = BigInteger.probablePrime(bits, random);
+        BigInteger order = p.subtract(BigInteger.ONE);
+        BigInteger c = shamirKey(order, random);
+
+        ShamirParameters encrypt = ShamirParameters.builder()
+                .p(p)
+                .keyPair(new BigInteger[]{c, c})
+                .build();
+        BigInteger d = c.modInverse(order);
+        ShamirParameters decrypt = ShamirParameters.builder()
+                .p(p)
+                .keyPair(new BigInteger[]{d, d})
+                .build();
+        return new KeyMaterial(encrypt, decrypt, p);
+    }
+
+    /**
+     * Shamir parameters with distinct keys for both parties, {@code {cA, cB}},
+     * as used by the three-pass exchange.
+     */
+    public static ShamirParameters shamirExchange(int bits) {
+        Random random = new Random(SEED ^ ((long) CryptoAlgorithm.SHAMIR.ordinal() << 32) ^ bits);
+        BigInteger p = BigInteger.probablePrime(bits, random);
+        BigInteger order = p.subtract(BigInteger.ONE);
+        return ShamirParameters.builder()
+                .p(p)
+                .keyPair(new BigInteger[]{shamirKey(order, random), shamirKey(order, random)})
+                .build();
+    }
+
+    private static BigInteger shamirKey(BigInteger order, Random random) {
+        BigInteger c;
+        do {
+            c = randomBelow(order, random);
+        } while (!c.gcd(order).equals(BigInteger.ONE));
+        return c;
+    }
+
+    private static KeyMaterial rabin(int bits, Random random) {
+        BigInteger p = blumPrime(bits / 2, random);
+        BigInteger q;
+        do {
+            q = blumPrime(bits - bits / 2, random);
+        } while (q.equals(p));
+
+        BigInteger n = p.multiply(q);
+        RabinParameters params = RabinParameters.builder()
+                .p(p)
+                .q(q)
+                .n(n)
+                .build();
+        return new KeyMaterial(params, params, n);
+    }
+
+    /**
+     * Builds a random curve through a random point: {@code b} is chosen so
+     * that the point satisfies the curve equation.
+     */
+    private static KeyMaterial ellipticCurve(int bits, Random random) {
+        BigInteger p = BigInteger.probablePrime(bits, random);
+        BigInteger a = randomBelow(p, random);
+        BigInteger x = randomBelow(p, random);
+        BigInteger y = randomBelow(p, random);
+        BigInteger b = y.multiply(y).subtract(x.multiply(x).add(a).multiply(x)).mod(p);
+
+        ECPoint basePoint = new ECPoint(x, y);
+        ECCurve curve = new ECCurve(a, b, p, basePoint);
+        BigInteger privateKey = randomBelow(p, random);
+        ECPoint publicKey = new ECMath(curve).multiply(basePoint, privateKey);
+
+        EllipticCurveParameters params = EllipticCurveParameters.builder()
+                .privateKey(privateKey)
+                .publicKey(publicKey)
+                .curve(curve)
+                .build();
+        return new KeyMaterial(params, params, p);
+    }
+
+    private static BigInteger blumPrime(int bits, Random random) {
+        BigInteger prime;
+        do {
+            prime = BigInteger.probablePrime(bits, random);
+        } while (!prime.mod(FOUR).equals(THREE));
+        return prime;
+    }
+
+    private static BigInteger randomBelow(BigInteger bound, Random random) {
+        BigInteger value;
+        do {
+            value = new BigInteger(bound.bitLength(), random);
+        } while (value.compareTo(BigInteger.TWO) < 0 || value.compareTo(bound) >= 0);
+        return value;
+    }
+
+    public record KeyMaterial(Object encryptParameters, Object decryptParameters, BigInteger modulus) {
+
+        public int plainBlockSize() {
+            return (modulus.bitLength() - 1) / 8;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.popov.hw.benchmark;
+
+import com.popov.hw.config.CryptoProperties;
+import com.popov.hw.enums.CiphertextFormat;
+import com.popov.hw.enums.CryptoAlgorithm;
+import com.popov.hw.service.crypto.pipeline.BlockCipher;
+import com.popov.hw.service.crypto.pipeline.BlockCipherEngine;
+import com.popov.hw.service.crypto.pipeline.MappedBlockProcessor;
+import com.popov.hw.service.crypto.pipeline.ParallelBlockPipeline;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+
+/**
+ * The block loop of {@link BlockCipherEngine} with an identity cipher, so
+ * that reading, framing and writing are measured without the arithmetic.
+ * Run with {@code -prof gc} and divide {@code gc.alloc.rate.norm} by
+ * {@code fileSize / blockBytes} for the allocation per block.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BlockPipelineBenchmark {
+
+    @Param({"128"})
+    public int blockBytes;
+
+    @Param({"1048576"})
+    public int fileSize;
+
+    @Param({"1"})
+    public int parallelism;
+
+    @Param({"false"})
+    public boolean memoryMapped;
+
+    private ForkJoinPool cryptoPool;
+    private BlockCipherEngine engine;
+    private BlockCipher cipher;
+    private Path directory;
+    private Path plaintext;
+    private Path ciphertext;
+    private Path output;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        CryptoProperties properties = new CryptoProperties(
+                parallelism, 0, CiphertextFormat.CONTAINER, memoryMapped, 0, false, 0, 0, 0);
+        cryptoPool = new ForkJoinPool(properties.parallelism());
+        engine = new BlockCipherEngine(
+                new ParallelBlockPipeline(cryptoPool, properties),
+                new MappedBlockProcessor(cryptoPool),
+                properties);
+
+        BigInteger modulus = BigInteger.ONE.shiftLeft(8 * blockBytes).add(BigInteger.ONE);
+        cipher = BlockCipher.builder()
+                .algorithm(CryptoAlgorithm.RSA)
+                .modulus(modulus)
+                .keyFingerprint(new byte[8])
+                .encryptor(message -> new BigInteger[]{message})
+                .decryptor(elements -> elements[0])
+                .build();
+
+        directory = Files.createTempDirectory("pipeline-benchmark");
+        plaintext = directory.resolve("plain.bin");
+        ciphertext = directory.resolve("cipher.bin");
+        output = directory.resolve("output.bin");
+
+        byte[] data = new byte[fileSize];
+        new Random(fileSize).nextBytes(data);
+        Files.write(plaintext, data);
+        engine.encrypt(cipher, plaintext.toString(), ciphertext.toString());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        cryptoPool.shutdown();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public void encrypt() throws IOException {
+        engine.encrypt(cipher, plaintext.toString(), output.toString());
+    }
+
+    @Benchmark
+    public void decrypt() throws IOException {
+        engine.decrypt(cipher, ciphertext.toString(), output.toString());
+    }
+}
@@ -0,0 +1,137 @@
+package com.popov.hw.benchmark;
+
+import com.popov.hw.enums.CryptoAlgorithm;
+import com.popov.hw.service.crypto.CryptoService;
+import com.popov.hw.service.crypto.context.RabinRedundancy;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * End-to-end file encryption and decryption through the real services. Besides
+ * the JMH score (files per second), the {@code bytes} and {@code blocks}
+ * counters report plaintext bytes and blocks per second.
+ * <p>
+ * Run with {@code mvn -Pbenchmark package && java -jar target/benchmarks.jar},
+ * narrowing the matrix with e.g. {@code -p algorithm=RSA -p keyBits=2048}.
+ * The overhead of Rabin redundancy tagging is measured with
+ * {@code -p algorithm=RABIN -p rabinRedundancy=false,true}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CryptoServiceBenchmark {
+
+    @Param({"RSA", "EL_GAMAL", "SHAMIR", "RABIN", "ELLIPTIC_CURVE"})
+    public CryptoAlgorithm algorithm;
+
+    @Param({"512", "1024", "2048", "4096"})
+    public int keyBits;
+
+    @Param({"65536", "1048576"})
+    public int fileSize;
+
+    @Param({"0"})
+    public int parallelism;
+
+    @Param({"false"})
+    public boolean memoryMapped;
+
+    @Param({"false"})
+    public boolean rabinRedundancy;
+
+    private BenchmarkEngines engines;
+    private CryptoService service;
+    private BenchmarkKeys.KeyMaterial keys;
+    private Path directory;
+    private Path plaintext;
+    private Path ciphertext;
+    private Path output;
+    private long blockCount;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        engines = new BenchmarkEngines(parallelism, memoryMapped, rabinRedundancy);
+        service = engines.service(algorithm);
+        keys = BenchmarkKeys.generate(algorithm, keyBits);
+
+        directory = Files.createTempDirectory("crypto-benchmark");
+        plaintext = directory.resolve("plain.bin");
+        ciphertext = directory.resolve("cipher.bin");
+        output = directory.resolve("output.bin");
+
+        byte[] data = new byte[fileSize];
+        new Random(fileSize).nextBytes(data);
+        Files.write(plaintext, data);
+        service.encrypt(plaintext.toString(), ciphertext.toString(), keys.encryptParameters());
+
+        int blockSize = keys.plainBlockSize();
+        if (rabinRedundancy && algorithm == CryptoAlgorithm.RABIN) {
+            blockSize -= RabinRedundancy.TAG_BYTES;
+        }
+        blockCount = (fileSize + blockSize - 1) / blockSize;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        engines.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public void encrypt(Volume volume) throws Exception {
+        service.encrypt(plaintext.toString(), output.toString(), keys.encryptParameters());
+        volume.add(fileSize, blockCount);
+    }
+
+    @Benchmark
+    public void decrypt(Volume volume) throws Exception {
+        service.decrypt(ciphertext.toString(), output.toString(), keys.decryptParameters());
+        volume.add(fileSize, blockCount);
+    }
+
+    /**
+     * Secondary throughput metrics, normalized per second by JMH.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Volume {
+
+        public long bytes;
+        public long blocks;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            bytes = 0;
+            blocks = 0;
+        }
+
+        void add(long byteCount, long blockCount) {
+            bytes += byteCount;
+            blocks += blockCount;
+        }
+    }
+}
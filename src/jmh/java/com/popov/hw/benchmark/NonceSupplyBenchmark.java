@@ -0,0 +1,73 @@
+package com.popov.hw.benchmark;
+
+import com.popov.hw.config.CryptoProperties;
+import com.popov.hw.service.crypto.random.NonceStream;
+import com.popov.hw.service.crypto.random.NonceSupply;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigInteger;
+import java.security.SecureRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One ElGamal session key {@code k} in {@code [2, p - 2]}: rejection sampling
+ * from a shared {@link SecureRandom}, as encryption used to do, against a
+ * {@link NonceStream}. Run with {@code -t N} to see the contention on the
+ * shared generator.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class NonceSupplyBenchmark {
+
+    @Param({"512", "2048"})
+    public int keyBits;
+
+    private final SecureRandom random = new SecureRandom();
+    private BigInteger p;
+    private BigInteger pMinusTwo;
+    private NonceSupply supply;
+    private NonceStream stream;
+
+    @Setup
+    public void setUp() {
+        // a modulus just above a power of two, where rejection discards most draws
+        p = BigInteger.ONE.shiftLeft(keyBits - 1).nextProbablePrime();
+        pMinusTwo = p.subtract(BigInteger.TWO);
+        supply = new NonceSupply(new CryptoProperties(0, 0, null, false, 0, false, 0, 0, 0));
+        stream = supply.stream(BigInteger.TWO, p.subtract(BigInteger.ONE));
+    }
+
+    @TearDown
+    public void tearDown() {
+        supply.close();
+    }
+
+    @Benchmark
+    public BigInteger sharedSecureRandom() {
+        BigInteger k;
+        do {
+            k = new BigInteger(p.bitLength(), random);
+        } while (k.compareTo(BigInteger.ONE) <= 0 || k.compareTo(pMinusTwo) > 0);
+        return k;
+    }
+
+    @Benchmark
+    public BigInteger nonceStream() {
+        return stream.next();
+    }
+}
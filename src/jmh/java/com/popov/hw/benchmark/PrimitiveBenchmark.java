@@ -0,0 +1,165 @@
+package com.popov.hw.benchmark;
+
+import com.popov.hw.enums.CryptoAlgorithm;
+import com.popov.hw.math.ec.ECMath;
+import com.popov.hw.math.ec.FixedBaseTable;
+import com.popov.hw.math.modular.FixedBasePowerTable;
+import com.popov.hw.math.modular.MontgomeryField;
+import com.popov.hw.model.ECCurve;
+import com.popov.hw.model.ECPoint;
+import com.popov.hw.model.EllipticCurveParameters;
+import com.popov.hw.model.RabinParameters;
+import com.popov.hw.model.RsaParameters;
+import com.popov.hw.service.crypto.context.RabinKeyContext;
+import com.popov.hw.service.crypto.context.RabinRedundancy;
+import com.popov.hw.service.crypto.context.RsaKeyContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigInteger;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The arithmetic underneath the services, measured in isolation: modular
+ * multiplication with {@link BigInteger} and in Montgomery form, modular
+ * exponentiation with and without a fixed-base table, RSA decryption with
+ * and without CRT, Rabin decryption with and without a redundancy tag, and
+ * elliptic curve scalar multiplication with and without
+ * a fixed-base table.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PrimitiveBenchmark {
+
+    @Param({"512", "1024", "2048", "4096"})
+    public int keyBits;
+
+    private BigInteger modulus;
+    private BigInteger base;
+    private BigInteger exponent;
+
+    private FixedBasePowerTable generatorPowers;
+
+    private MontgomeryField field;
+    private long[] montgomeryBase;
+    private long[] montgomeryExponent;
+    private long[] montgomeryProduct;
+
+    private BigInteger rsaCiphertext;
+    private RsaKeyContext rsaPlain;
+    private RsaKeyContext rsaCrt;
+
+    private RabinKeyContext rabin;
+    private BigInteger rabinCiphertext;
+    private BigInteger rabinTaggedCiphertext;
+
+    private ECMath curveMath;
+    private ECPoint basePoint;
+    private FixedBaseTable baseTable;
+    private BigInteger scalar;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(keyBits);
+
+        BenchmarkKeys.KeyMaterial rsaKeys = BenchmarkKeys.generate(CryptoAlgorithm.RSA, keyBits);
+        RsaParameters rsa = (RsaParameters) rsaKeys.decryptParameters();
+        modulus = rsa.n();
+        base = new BigInteger(keyBits - 1, random);
+        exponent = new BigInteger(keyBits - 1, random);
+        rsaCiphertext = base.modPow(rsa.e(), rsa.n());
+        generatorPowers = new FixedBasePowerTable(base, modulus, modulus.bitLength());
+        field = new MontgomeryField(modulus);
+        montgomeryBase = field.toMontgomery(base);
+        montgomeryExponent = field.toMontgomery(exponent);
+        montgomeryProduct = field.newElement();
+        rsaCrt = RsaKeyContext.from(rsa);
+        rsaPlain = RsaKeyContext.from(RsaParameters.builder()
+                .e(rsa.e())
+                .n(rsa.n())
+                .d(rsa.d())
+                .build());
+
+        RabinParameters rabinParams = (RabinParameters) BenchmarkKeys
+                .generate(CryptoAlgorithm.RABIN, keyBits)
+                .decryptParameters();
+        rabin = RabinKeyContext.from(rabinParams);
+        BigInteger rabinMessage = new BigInteger(rabinParams.n().bitLength() - 1 - 8 * RabinRedundancy.TAG_BYTES, random);
+        rabinCiphertext = rabinMessage.modPow(BigInteger.TWO, rabinParams.n());
+        rabinTaggedCiphertext = RabinRedundancy.tag(rabinMessage).modPow(BigInteger.TWO, rabinParams.n());
+
+        EllipticCurveParameters ec = (EllipticCurveParameters) BenchmarkKeys
+                .generate(CryptoAlgorithm.ELLIPTIC_CURVE, keyBits)
+                .encryptParameters();
+        ECCurve curve = ec.curve();
+        curveMath = new ECMath(curve);
+        basePoint = curve.basePoint();
+        baseTable = new FixedBaseTable(curveMath, basePoint, curve.p().bitLength());
+        scalar = new BigInteger(curve.p().bitLength() - 1, random);
+    }
+
+    @Benchmark
+    public BigInteger modMultiply() {
+        return base.multiply(exponent).mod(modulus);
+    }
+
+    @Benchmark
+    public long[] modMultiplyMontgomery() {
+        field.multiply(montgomeryBase, montgomeryExponent, montgomeryProduct);
+        return montgomeryProduct;
+    }
+
+    @Benchmark
+    public BigInteger modPow() {
+        return base.modPow(exponent, modulus);
+    }
+
+    @Benchmark
+    public BigInteger modPowFixedBase() {
+        return generatorPowers.pow(exponent);
+    }
+
+    @Benchmark
+    public BigInteger rsaDecryptPlain() {
+        return rsaPlain.decrypt(rsaCiphertext);
+    }
+
+    @Benchmark
+    public BigInteger rsaDecryptCrt() {
+        return rsaCrt.decrypt(rsaCiphertext);
+    }
+
+    @Benchmark
+    public BigInteger rabinDecryptSmallest() {
+        return rabin.decrypt(rabinCiphertext);
+    }
+
+    @Benchmark
+    public BigInteger rabinDecryptTagged() {
+        return rabin.decryptTagged(rabinTaggedCiphertext);
+    }
+
+    @Benchmark
+    public ECPoint ecMultiply() {
+        return curveMath.multiply(basePoint, scalar);
+    }
+
+    @Benchmark
+    public ECPoint ecMultiplyFixedBase() {
+        return baseTable.multiply(scalar);
+    }
+}
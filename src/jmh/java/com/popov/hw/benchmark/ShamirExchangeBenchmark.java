@@ -0,0 +1,92 @@
+package com.popov.hw.benchmark;
+
+import com.popov.hw.enums.CryptoAlgorithm;
+import com.popov.hw.model.ShamirParameters;
+import com.popov.hw.service.crypto.ShamirCryptoService;
+import com.popov.hw.service.crypto.threepass.PassStatistics;
+import com.popov.hw.service.crypto.threepass.ThreePassReport;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * The full Shamir three-pass exchange (all four passes, pipelined) on a
+ * file. Besides exchanges per second, the {@code bytes} and {@code blocks}
+ * counters report end-to-end throughput; the per-pass latency of the last
+ * exchange is printed when the trial ends.
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ShamirExchangeBenchmark {
+
+    @Param({"512", "1024", "2048"})
+    public int keyBits;
+
+    @Param({"65536"})
+    public int fileSize;
+
+    private BenchmarkEngines engines;
+    private ShamirCryptoService service;
+    private ShamirParameters parameters;
+    private Path directory;
+    private Path plaintext;
+    private Path output;
+    private ThreePassReport lastReport;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        engines = new BenchmarkEngines(0, false, false);
+        service = (ShamirCryptoService) engines.service(CryptoAlgorithm.SHAMIR);
+        parameters = BenchmarkKeys.shamirExchange(keyBits);
+
+        directory = Files.createTempDirectory("shamir-benchmark");
+        plaintext = directory.resolve("plain.bin");
+        output = directory.resolve("output.bin");
+
+        byte[] data = new byte[fileSize];
+        new Random(fileSize).nextBytes(data);
+        Files.write(plaintext, data);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        if (lastReport != null) {
+            for (PassStatistics pass : lastReport.passes()) {
+                System.out.printf("%n  pass %s: avg %.1f us, max %.1f us", pass.name(), pass.averageMicros(), pass.maxMicros());
+            }
+            System.out.println();
+        }
+        engines.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public void exchange(CryptoServiceBenchmark.Volume volume) throws Exception {
+        lastReport = service.exchange(plaintext.toString(), output.toString(), parameters);
+        volume.add(lastReport.bytes(), lastReport.blocks());
+    }
+}
@@ -1,23 +1,39 @@
 package com.popov.hw;
 
+import com.popov.hw.batch.BatchArguments;
+import com.popov.hw.batch.BatchRunner;
 import com.popov.hw.coordinator.ApplicationCoordinator;
 import lombok.RequiredArgsConstructor;
-import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.ExitCodeGenerator;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 
 @SpringBootApplication
 @RequiredArgsConstructor
-public class CryptologyApplication implements CommandLineRunner {
+public class CryptologyApplication implements ApplicationRunner, ExitCodeGenerator {
 
     private final ApplicationCoordinator coordinator;
+    private final BatchRunner batchRunner;
+
+    private int exitCode;
 
     public static void main(String[] args) {
-        SpringApplication.run(CryptologyApplication.class, args);
+        System.exit(SpringApplication.exit(SpringApplication.run(CryptologyApplication.class, args)));
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (BatchArguments.isBatch(args)) {
+            exitCode = batchRunner.execute(args);
+        } else {
+            coordinator.run();
+        }
     }
 
     @Override
-    public void run(String... args) {
-        coordinator.run();
+    public int getExitCode() {
+        return exitCode;
     }
 }
@@ -0,0 +1,160 @@
+package com.popov.hw.batch;
+
+import com.popov.hw.enums.CipherOperation;
+import com.popov.hw.enums.CryptoAlgorithm;
+import com.popov.hw.exception.InvalidInputException;
+import com.popov.hw.i18n.MessageService;
+import lombok.Builder;
+import org.springframework.boot.ApplicationArguments;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * Command line of the headless batch mode:
+ * <pre>
+ * --batch --algorithm=rsa --operation=encrypt --key=rsa.properties \
+ *         [--manifest=jobs.txt] in1.txt out1.enc in2.txt out2.enc ...
+ * </pre>
+ * A manifest lists one {@code input output} pair per line (tab-separated if
+ * the paths contain spaces); blank lines and {@code #} comments are skipped.
+ * <p>
+ * For Shamir, {@code --operation=exchange} runs the pipelined three-pass
+ * exchange on each input and writes the plaintext B recovers.
+ * <p>
+ * Instead of a key file, {@code --params=rsa_params.txt} reads a parameter
+ * sheet in the {@code test-inputs} format
+ * ({@link com.popov.hw.input.file.ParameterFile}), and
+ * {@code --key-store=keys.bin --key-alias=alice} takes the key from a
+ * {@link com.popov.hw.keystore.KeyStore}. Adding
+ * {@code --key-store=keys.bin --save-key=alice} to a run with a key or
+ * parameter file stores that key for later runs.
+ */
+@Builder
+public record BatchArguments(
+        CryptoAlgorithm algorithm,
+        CipherOperation operation,
+        Path keyFile,
+        Path parameterFile,
+        Path keyStore,
+        String keyAlias,
+        String saveKey,
+        List<FilePair> files
+) {
+
+    public static final String BATCH_OPTION = "batch";
+
+    public static boolean isBatch(ApplicationArguments args) {
+        return args.containsOption(BATCH_OPTION);
+    }
+
+    public static BatchArguments parse(ApplicationArguments args, MessageService messages) {
+        List<FilePair> files = new ArrayList<>();
+        String manifest = option(args, "manifest", false, messages);
+        if (manifest != null) {
+            files.addAll(readManifest(Path.of(manifest), messages));
+        }
+
+        List<String> positional = args.getNonOptionArgs();
+        if (positional.size() % 2 != 0) {
+            throw new InvalidInputException(messages.getMessage(
+                    "batch.error.unpaired.file", positional.get(positional.size() - 1)));
+        }
+        for (int i = 0; i < positional.size(); i += 2) {
+            files.add(new FilePair(positional.get(i), positional.get(i + 1)));
+        }
+        if (files.isEmpty()) {
+            throw new InvalidInputException(messages.getMessage("batch.error.no.files"));
+        }
+
+        String keyFile = option(args, "key", false, messages);
+        String parameterFile = option(args, "params", false, messages);
+        String keyStore = option(args, "key-store", false, messages);
+        String keyAlias = option(args, "key-alias", false, messages);
+        String saveKey = option(args, "save-key", false, messages);
+        if (Stream.of(keyFile, parameterFile, keyAlias).filter(Objects::nonNull).count() != 1) {
+            throw new InvalidInputException(messages.getMessage("batch.error.key.source"));
+        }
+        if ((keyAlias != null || saveKey != null) && keyStore == null) {
+            throw new InvalidInputException(messages.getMessage("batch.error.missing.option", "key-store"));
+        }
+
+        String operation = option(args, "operation", true, messages);
+        CryptoAlgorithm algorithm = parseAlgorithm(option(args, "algorithm", true, messages), messages);
+        CipherOperation cipherOperation;
+        try {
+            cipherOperation = CipherOperation.fromString(operation);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidInputException(messages.getInvalidOperationError(operation));
+        }
+        if (!cipherOperation.supports(algorithm)) {
+            throw new InvalidInputException(messages.getMessage("error.operation.algorithm", operation, algorithm));
+        }
+
+        return BatchArguments.builder()
+                .algorithm(algorithm)
+                .operation(cipherOperation)
+                .keyFile(keyFile == null ? null : Path.of(keyFile))
+                .parameterFile(parameterFile == null ? null : Path.of(parameterFile))
+                .keyStore(keyStore == null ? null : Path.of(keyStore))
+                .keyAlias(keyAlias)
+                .saveKey(saveKey)
+                .files(List.copyOf(files))
+                .build();
+    }
+
+    private static CryptoAlgorithm parseAlgorithm(String value, MessageService messages) {
+        String normalized = value.trim().toLowerCase(Locale.ROOT);
+        for (CryptoAlgorithm algorithm : CryptoAlgorithm.values()) {
+            if (normalized.equals(String.valueOf(algorithm.getNumber()))
+                    || normalized.equals(algorithm.getMessageKey())
+                    || normalized.replace('-', '_').equals(algorithm.name().toLowerCase(Locale.ROOT))) {
+                return algorithm;
+            }
+        }
+        throw new InvalidInputException(messages.getMessage("batch.error.invalid.algorithm", value));
+    }
+
+    private static String option(ApplicationArguments args, String name, boolean required, MessageService messages) {
+        List<String> values = args.getOptionValues(name);
+        if (values == null || values.isEmpty() || values.get(0).isBlank()) {
+            if (required) {
+                throw new InvalidInputException(messages.getMessage("batch.error.missing.option", name));
+            }
+            return null;
+        }
+        return values.get(values.size() - 1);
+    }
+
+    private static List<FilePair> readManifest(Path manifest, MessageService messages) {
+        List<String> lines;
+        try {
+            lines = Files.readAllLines(manifest);
+        } catch (IOException e) {
+            throw new InvalidInputException(messages.getMessage("error.file.not.found", manifest), e);
+        }
+
+        List<FilePair> pairs = new ArrayList<>(lines.size());
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i).strip();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] paths = line.contains("\t") ? line.split("\t+") : line.split("\\s+");
+            if (paths.length != 2) {
+                throw new InvalidInputException(messages.getMessage("batch.error.manifest.line", i + 1));
+            }
+            pairs.add(new FilePair(paths[0], paths[1]));
+        }
+        return pairs;
+    }
+
+    public record FilePair(String inputPath, String outputPath) {
+    }
+}
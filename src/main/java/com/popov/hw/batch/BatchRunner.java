@@ -0,0 +1,147 @@
+package com.popov.hw.batch;
+
+import com.popov.hw.exception.FileOperationException;
+import com.popov.hw.exception.InvalidInputException;
+import com.popov.hw.i18n.MessageService;
+import com.popov.hw.input.ParameterCollectorFactory;
+import com.popov.hw.input.file.ParameterFileCollector;
+import com.popov.hw.input.file.ParameterFileValidator;
+import com.popov.hw.keystore.KeyStore;
+import com.popov.hw.keystore.StoredKey;
+import com.popov.hw.workflow.BatchJobResult;
+import com.popov.hw.workflow.BatchReport;
+import com.popov.hw.workflow.WorkflowBatchScheduler;
+import com.popov.hw.workflow.WorkflowRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Headless mode: reads the key once, then hands every file pair to
+ * {@link WorkflowBatchScheduler}, so files are processed concurrently in the
+ * same JVM and each additional file costs only its crypto work. A failed file
+ * is reported and skipped; the rest of the batch still runs.
+ */
+@Component
+@RequiredArgsConstructor
+public class BatchRunner {
+
+    public static final int EXIT_OK = 0;
+    public static final int EXIT_FAILED = 1;
+    public static final int EXIT_USAGE = 2;
+
+    private final ParameterCollectorFactory collectorFactory;
+    private final WorkflowBatchScheduler scheduler;
+    private final MessageService messageService;
+    private final KeyStore keyStore;
+    private final ParameterFileValidator parameterFileValidator;
+
+    /**
+     * Parses the batch command line, runs it and returns the process exit
+     * code: {@link #EXIT_FAILED} if any file failed, {@link #EXIT_USAGE} if
+     * the arguments or the key file are invalid.
+     */
+    public int execute(ApplicationArguments args) {
+        try {
+            return run(BatchArguments.parse(args, messageService)) == 0 ? EXIT_OK : EXIT_FAILED;
+        } catch (InvalidInputException e) {
+            System.err.println(messageService.getErrorMessage(e.getMessage()));
+            System.err.println(messageService.getMessage("batch.usage"));
+            return EXIT_USAGE;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return EXIT_FAILED;
+        }
+    }
+
+    /**
+     * Runs the batch and returns the number of files that failed.
+     */
+    public long run(BatchArguments arguments) throws InterruptedException {
+        Object parameters = parameters(arguments);
+
+        List<WorkflowRequest> requests = arguments.files().stream()
+                .map(files -> WorkflowRequest.builder()
+                        .algorithm(arguments.algorithm())
+                        .operation(arguments.operation())
+                        .inputFilePath(files.inputPath())
+                        .outputFilePath(files.outputPath())
+                        .parameters(parameters)
+                        .build())
+                .toList();
+
+        BatchReport report = scheduler.run(requests, this::printResult);
+
+        System.out.println(messageService.getMessage("batch.summary",
+                report.jobs().size(), report.failedCount(), report.elapsedMillis(),
+                report.filesPerSecond(), report.megabytesPerSecond()));
+        return report.failedCount();
+    }
+
+    /**
+     * The key from the key store, or collected from the key file or the
+     * parameter file and then saved to the store if {@code --save-key} is
+     * given.
+     */
+    private Object parameters(BatchArguments arguments) {
+        try {
+            if (arguments.keyAlias() != null) {
+                StoredKey key = keyStore.load(arguments.keyStore(), arguments.keyAlias());
+                if (key.algorithm() != arguments.algorithm()) {
+                    throw new InvalidInputException(messageService.getMessage("batch.error.key.algorithm",
+                            key.alias(), key.algorithm(), arguments.algorithm()));
+                }
+                return key.parameters();
+            }
+
+            Object parameters = arguments.parameterFile() != null
+                    ? readParameterFile(arguments)
+                    : readKeyFile(arguments);
+            if (arguments.saveKey() != null) {
+                keyStore.save(arguments.keyStore(), arguments.saveKey(), arguments.algorithm(), parameters);
+            }
+            return parameters;
+        } catch (IOException | FileOperationException e) {
+            throw new InvalidInputException(
+                    messageService.getMessage("batch.error.key.store", arguments.keyStore(), e.getMessage()), e);
+        }
+    }
+
+    /**
+     * Collects the key through the prompt collectors. Values that parse but
+     * do not form a key, e.g. an {@code e} that is not coprime to
+     * {@code (p - 1)(q - 1)}, fail in the key calculators.
+     */
+    private Object readKeyFile(BatchArguments arguments) {
+        var keys = KeyFilePrompt.load(arguments.keyFile(), messageService);
+        try {
+            return collectorFactory.getCollector(arguments.algorithm()).collectParameters(keys);
+        } catch (ArithmeticException | IllegalArgumentException e) {
+            throw new InvalidInputException(
+                    messageService.getMessage("batch.error.key.invalid", arguments.keyFile(), e.getMessage()), e);
+        }
+    }
+
+    private Object readParameterFile(BatchArguments arguments) {
+        try {
+            return new ParameterFileCollector(arguments.algorithm(), arguments.parameterFile(), parameterFileValidator)
+                    .collectParameters(null);
+        } catch (FileOperationException e) {
+            throw new InvalidInputException(e.getMessage(), e);
+        }
+    }
+
+    private synchronized void printResult(BatchJobResult result) {
+        WorkflowRequest request = result.request();
+        if (result.succeeded()) {
+            System.out.println(messageService.getMessage("batch.file.done",
+                    request.inputFilePath(), request.outputFilePath(), result.latencyMillis()));
+        } else {
+            System.err.println(messageService.getMessage("batch.file.failed",
+                    request.inputFilePath(), result.failure().getMessage()));
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.popov.hw.batch;
+
+import com.popov.hw.exception.InvalidInputException;
+import com.popov.hw.i18n.MessageService;
+import com.popov.hw.ui.ParameterPrompt;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+import java.util.regex.Pattern;
+
+/**
+ * Answers the parameter collectors' prompts from a key file instead of the
+ * console, so key derivation stays in the collectors. Each prompt key is
+ * looked up by the part after {@code .enter.}, e.g. {@code rsa.enter.prime.p}
+ * reads {@code prime.p}. Every value must be an integer, since every prompt
+ * asks for one:
+ * <pre>
+ * public.key=65537
+ * prime.p=61
+ * prime.q=53
+ * </pre>
+ */
+@Slf4j
+class KeyFilePrompt implements ParameterPrompt {
+
+    private static final String PROMPT_MARKER = ".enter.";
+    private static final Pattern INTEGER = Pattern.compile("-?\\d+");
+
+    private final Properties keys;
+    private final MessageService messageService;
+
+    private KeyFilePrompt(Properties keys, MessageService messageService) {
+        this.keys = keys;
+        this.messageService = messageService;
+    }
+
+    static KeyFilePrompt load(Path keyFile, MessageService messageService) {
+        Properties keys = new Properties();
+        try (Reader reader = Files.newBufferedReader(keyFile, StandardCharsets.UTF_8)) {
+            keys.load(reader);
+        } catch (IOException e) {
+            throw new InvalidInputException(
+                    messageService.getMessage("batch.error.key.file", keyFile, e.getMessage()), e);
+        }
+        return new KeyFilePrompt(keys, messageService);
+    }
+
+    @Override
+    public String promptInput(String messageKey, Object... args) {
+        int marker = messageKey.indexOf(PROMPT_MARKER);
+        String name = marker < 0 ? messageKey : messageKey.substring(marker + PROMPT_MARKER.length());
+        String value = keys.getProperty(name, keys.getProperty(messageKey));
+        if (value == null || value.isBlank()) {
+            throw new InvalidInputException(messageService.getMessage("batch.error.missing.key", name));
+        }
+        if (!INTEGER.matcher(value.trim()).matches()) {
+            throw new InvalidInputException(messageService.getMessage("batch.error.invalid.key", name, value.trim()));
+        }
+        return value.trim();
+    }
+
+    @Override
+    public void displayInfo(String messageKey, Object... args) {
+        log.info(messageService.getMessage(messageKey, args));
+    }
+}
@@ -0,0 +1,45 @@
+package com.popov.hw.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Configuration
+@EnableConfigurationProperties(CryptoProperties.class)
+public class ConcurrencyConfig {
+
+    @Bean(destroyMethod = "shutdown")
+    public ForkJoinPool cryptoPool(CryptoProperties properties) {
+        return new ForkJoinPool(properties.parallelism());
+    }
+
+    /**
+     * Runs batch jobs. A job mostly waits on file I/O and on {@link #cryptoPool},
+     * so it gets a virtual thread when the runtime has them (Java 21+) and a
+     * thread from a pool of {@code crypto.batch-concurrency} otherwise.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService batchJobExecutor(CryptoProperties properties) {
+        try {
+            return (ExecutorService) MethodHandles.publicLookup()
+                    .findStatic(Executors.class, "newVirtualThreadPerTaskExecutor", MethodType.methodType(ExecutorService.class))
+                    .invoke();
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            AtomicInteger counter = new AtomicInteger();
+            return Executors.newFixedThreadPool(properties.batchConcurrency(), task -> {
+                Thread thread = new Thread(task, "batch-job-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        } catch (Throwable e) {
+            throw new IllegalStateException("Cannot create the batch job executor", e);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.popov.hw.config;
+
+import com.popov.hw.enums.CiphertextFormat;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "crypto")
+public record CryptoProperties(
+        int parallelism,
+        int chunkSize,
+        CiphertextFormat format,
+        boolean memoryMapped,
+        int batchConcurrency,
+        boolean rabinRedundancy,
+        int nonceQueueCapacity,
+        int ephemeralPoolCapacity,
+        int keyCacheSize
+) {
+
+    private static final int DEFAULT_CHUNK_SIZE = 64;
+    private static final int DEFAULT_NONCE_QUEUE_CAPACITY = 1024;
+    private static final int DEFAULT_EPHEMERAL_POOL_CAPACITY = 256;
+    private static final int DEFAULT_KEY_CACHE_SIZE = 32;
+
+    public CryptoProperties {
+        if (parallelism <= 0) {
+            parallelism = Runtime.getRuntime().availableProcessors();
+        }
+        if (chunkSize <= 0) {
+            chunkSize = DEFAULT_CHUNK_SIZE;
+        }
+        if (format == null) {
+            format = CiphertextFormat.CONTAINER;
+        }
+        if (batchConcurrency <= 0) {
+            batchConcurrency = 4 * parallelism;
+        }
+        if (nonceQueueCapacity <= 0) {
+            nonceQueueCapacity = DEFAULT_NONCE_QUEUE_CAPACITY;
+        }
+        if (ephemeralPoolCapacity <= 0) {
+            ephemeralPoolCapacity = DEFAULT_EPHEMERAL_POOL_CAPACITY;
+        }
+        if (keyCacheSize <= 0) {
+            keyCacheSize = DEFAULT_KEY_CACHE_SIZE;
+        }
+    }
+}
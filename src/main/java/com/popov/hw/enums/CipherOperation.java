@@ -7,10 +7,18 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public enum CipherOperation {
     ENCRYPT("encrypt"),
-    DECRYPT("decrypt");
+    DECRYPT("decrypt"),
+    /**
+     * The full Shamir three-pass exchange, simulated with both key pairs.
+     */
+    EXCHANGE("exchange");
 
     private final String operation;
 
+    public boolean supports(CryptoAlgorithm algorithm) {
+        return this != EXCHANGE || algorithm == CryptoAlgorithm.SHAMIR;
+    }
+
     public static CipherOperation fromString(String input) {
         String normalized = input.trim().toLowerCase();
         for (CipherOperation operation : values()) {
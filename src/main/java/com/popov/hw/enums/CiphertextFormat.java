@@ -0,0 +1,6 @@
+package com.popov.hw.enums;
+
+public enum CiphertextFormat {
+    CONTAINER,
+    LEGACY
+}
@@ -1,11 +1,11 @@
 package com.popov.hw.input;
 
 import com.popov.hw.enums.CryptoAlgorithm;
-import com.popov.hw.ui.UserInterface;
+import com.popov.hw.ui.ParameterPrompt;
 
 public interface ParameterCollector<T> {
 
-    T collectParameters(UserInterface ui);
+    T collectParameters(ParameterPrompt ui);
 
     CryptoAlgorithm getSupportedAlgorithm();
 }
@@ -0,0 +1,135 @@
+package com.popov.hw.input.file;
+
+import com.popov.hw.exception.FileOperationException;
+import com.popov.hw.exception.InvalidInputException;
+import com.popov.hw.model.ECPoint;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A parameter sheet in the {@code test-inputs} format: free text with one
+ * {@code label: value} or {@code label = value} line per parameter, e.g.
+ * <pre>
+ * Public key (e): 65537
+ * Prime p (≡ 3 mod 4): 59
+ * Generator point G = (0, 1)
+ * </pre>
+ * A value is registered under the symbol in parentheses, if any, and under
+ * the label with parenthesised notes removed, both in lower case, so the
+ * lines above define {@code e}, {@code public key}, {@code prime p} and
+ * {@code generator point g}. Only the first example is read: parsing stops
+ * at the {@code Calculated values:} heading, and a repeated name keeps its
+ * first value. Lines without a plain integer or point value are ignored.
+ */
+public final class ParameterFile {
+
+    private static final Pattern ENTRY = Pattern.compile(
+            "^(?<label>[^:=]+?)\\s*[:=]\\s*(?<value>-?\\d+|\\(\\s*-?\\d+\\s*,\\s*-?\\d+\\s*\\))$");
+    private static final Pattern SYMBOL = Pattern.compile("\\(\\s*(\\w+)\\s*\\)");
+    private static final Pattern NOTE = Pattern.compile("\\([^)]*\\)");
+    private static final Pattern POINT = Pattern.compile("\\(\\s*(-?\\d+)\\s*,\\s*(-?\\d+)\\s*\\)");
+    private static final String END_OF_INPUTS = "calculated values:";
+
+    private final Path path;
+    private final Map<String, String> values;
+
+    private ParameterFile(Path path, Map<String, String> values) {
+        this.path = path;
+        this.values = values;
+    }
+
+    /**
+     * @throws FileOperationException if the file cannot be read
+     */
+    public static ParameterFile read(Path path) {
+        try {
+            return parse(path, Files.readString(path, StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new FileOperationException("Cannot read parameter file " + path + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static ParameterFile parse(Path path, String text) {
+        Map<String, String> values = new LinkedHashMap<>();
+        for (String line : text.lines().map(String::strip).toList()) {
+            if (line.toLowerCase(Locale.ROOT).equals(END_OF_INPUTS)) {
+                break;
+            }
+            Matcher entry = ENTRY.matcher(line);
+            if (!entry.matches()) {
+                continue;
+            }
+            String label = entry.group("label");
+            String value = entry.group("value");
+            Matcher symbol = SYMBOL.matcher(label);
+            if (symbol.find()) {
+                values.putIfAbsent(normalize(symbol.group(1)), value);
+            }
+            values.putIfAbsent(normalize(NOTE.matcher(label).replaceAll(" ")), value);
+        }
+        return new ParameterFile(path, Map.copyOf(values));
+    }
+
+    public Path path() {
+        return path;
+    }
+
+    /**
+     * The parsed values by name; equal files give equal maps, so this is
+     * what validated results are cached by.
+     */
+    public Map<String, String> values() {
+        return values;
+    }
+
+    /**
+     * The first of {@code names} the file defines, as an integer.
+     *
+     * @throws InvalidInputException if none is defined or the value is a point
+     */
+    public BigInteger number(String... names) {
+        String value = value(names);
+        if (value.startsWith("(")) {
+            throw new InvalidInputException(
+                    "Parameter '" + names[0] + "' in " + path + " must be a number, not a point");
+        }
+        return new BigInteger(value);
+    }
+
+    /**
+     * The first of {@code names} the file defines, as a point {@code (x, y)}.
+     *
+     * @throws InvalidInputException if none is defined or the value is a number
+     */
+    public ECPoint point(String... names) {
+        Matcher point = POINT.matcher(value(names));
+        if (!point.matches()) {
+            throw new InvalidInputException(
+                    "Parameter '" + names[0] + "' in " + path + " must be a point (x, y)");
+        }
+        return new ECPoint(new BigInteger(point.group(1)), new BigInteger(point.group(2)));
+    }
+
+    private String value(String... names) {
+        for (String name : names) {
+            String value = values.get(name);
+            if (value != null) {
+                return value;
+            }
+        }
+        throw new InvalidInputException("Parameter file " + path + " does not define '" + names[0] + "'");
+    }
+
+    private static String normalize(String label) {
+        return label.strip().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,37 @@
+package com.popov.hw.input.file;
+
+import com.popov.hw.enums.CryptoAlgorithm;
+import com.popov.hw.input.ParameterCollector;
+import com.popov.hw.ui.ParameterPrompt;
+import lombok.RequiredArgsConstructor;
+
+import java.nio.file.Path;
+
+/**
+ * Collects the parameters of one algorithm from a {@link ParameterFile}
+ * instead of prompting, e.g. {@code test-inputs/rsa_params.txt}. It is made
+ * per file rather than registered as a bean, so
+ * {@link com.popov.hw.input.ParameterCollectorFactory} keeps one prompt
+ * collector per algorithm.
+ */
+@RequiredArgsConstructor
+public class ParameterFileCollector implements ParameterCollector<Object> {
+
+    private final CryptoAlgorithm algorithm;
+    private final Path file;
+    private final ParameterFileValidator validator;
+
+    /**
+     * Reads and validates the file; nothing is prompted, so {@code ui} is
+     * not used and may be {@code null}.
+     */
+    @Override
+    public Object collectParameters(ParameterPrompt ui) {
+        return validator.validate(algorithm, ParameterFile.read(file));
+    }
+
+    @Override
+    public CryptoAlgorithm getSupportedAlgorithm() {
+        return algorithm;
+    }
+}
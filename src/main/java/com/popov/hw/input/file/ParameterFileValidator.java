@@ -0,0 +1,144 @@
+package com.popov.hw.input.file;
+
+import com.popov.hw.enums.CryptoAlgorithm;
+import com.popov.hw.exception.InvalidInputException;
+import com.popov.hw.model.ECCurve;
+import com.popov.hw.model.ECPoint;
+import com.popov.hw.model.ElGamalParameters;
+import com.popov.hw.model.EllipticCurveParameters;
+import com.popov.hw.model.RabinParameters;
+import com.popov.hw.model.RsaParameters;
+import com.popov.hw.service.ElGamalKeyCalculator;
+import com.popov.hw.service.EllipticCurveKeyCalculator;
+import com.popov.hw.service.RabinKeyCalculator;
+import com.popov.hw.service.RsaKeyCalculator;
+import com.popov.hw.service.crypto.context.KeyContextCache;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.math.BigInteger;
+import java.util.Map;
+
+/**
+ * Checks a {@link ParameterFile} and derives the full key from it, the way
+ * the prompt collectors do: primality of every prime, {@code p, q ≡ 3 (mod 4)}
+ * for Rabin and the base point on the curve for EC. The result is kept in
+ * the in-memory {@link KeyContextCache} by the parsed values, so within one
+ * process a sheet that is loaded again is only parsed, not re-validated,
+ * and an edited sheet has other values and is checked anew. That cache is
+ * an LRU shared with the crypto contexts, so a validated sheet competes
+ * with them for {@code crypto.key-cache-size} slots and is validated again
+ * once it has been evicted; nothing survives the process.
+ */
+@Component
+@RequiredArgsConstructor
+public class ParameterFileValidator {
+
+    private static final int PRIME_CERTAINTY = 64;
+    private static final BigInteger THREE = BigInteger.valueOf(3);
+    private static final BigInteger FOUR = BigInteger.valueOf(4);
+
+    private final RsaKeyCalculator rsaKeyCalculator;
+    private final ElGamalKeyCalculator elGamalKeyCalculator;
+    private final RabinKeyCalculator rabinKeyCalculator;
+    private final EllipticCurveKeyCalculator ellipticCurveKeyCalculator;
+    private final KeyContextCache cache;
+
+    /**
+     * @throws InvalidInputException if a parameter is missing or invalid, or
+     *                               there is no file format for the algorithm
+     */
+    public Object validate(CryptoAlgorithm algorithm, ParameterFile file) {
+        ValidatedFile key = new ValidatedFile(algorithm, file.values());
+        return switch (algorithm) {
+            case RSA -> cache.get(RsaParameters.class, key, () -> rsa(file));
+            case EL_GAMAL -> cache.get(ElGamalParameters.class, key, () -> elGamal(file));
+            case RABIN -> cache.get(RabinParameters.class, key, () -> rabin(file));
+            case ELLIPTIC_CURVE -> cache.get(EllipticCurveParameters.class, key, () -> ellipticCurve(file));
+            default -> throw new InvalidInputException("No parameter file format for " + algorithm);
+        };
+    }
+
+    private RsaParameters rsa(ParameterFile file) {
+        BigInteger e = file.number("e", "public key");
+        BigInteger p = prime(file, "p", "prime p");
+        BigInteger q = prime(file, "q", "prime q");
+        if (p.equals(q)) {
+            throw new InvalidInputException("p and q must be different primes in " + file.path());
+        }
+
+        BigInteger d;
+        try {
+            d = rsaKeyCalculator.calculatePrivateKey(e, p, q);
+        } catch (ArithmeticException ex) {
+            throw new InvalidInputException("e must be coprime to (p - 1)(q - 1) in " + file.path(), ex);
+        }
+        return RsaParameters.builder()
+                .e(e)
+                .p(p)
+                .q(q)
+                .n(rsaKeyCalculator.calculateModulus(p, q))
+                .d(d)
+                .build();
+    }
+
+    private ElGamalParameters elGamal(ParameterFile file) {
+        BigInteger p = prime(file, "p", "large prime", "prime");
+        BigInteger g = file.number("g", "primitive root", "generator");
+        BigInteger x = file.number("x", "private key");
+        if (g.compareTo(BigInteger.ONE) <= 0 || g.compareTo(p) >= 0) {
+            throw new InvalidInputException("g must be in (1, p) in " + file.path());
+        }
+        if (x.signum() <= 0 || x.compareTo(p.subtract(BigInteger.ONE)) >= 0) {
+            throw new InvalidInputException("x must be in (0, p - 1) in " + file.path());
+        }
+        return ElGamalParameters.builder()
+                .p(p)
+                .g(g)
+                .x(x)
+                .publicKey(elGamalKeyCalculator.calculatePublicKey(g, x, p))
+                .build();
+    }
+
+    private RabinParameters rabin(ParameterFile file) {
+        BigInteger p = prime(file, "p", "prime p");
+        BigInteger q = prime(file, "q", "prime q");
+        if (!p.mod(FOUR).equals(THREE) || !q.mod(FOUR).equals(THREE)) {
+            throw new InvalidInputException("p and q must be ≡ 3 (mod 4) in " + file.path());
+        }
+        if (p.equals(q)) {
+            throw new InvalidInputException("p and q must be different primes in " + file.path());
+        }
+        return RabinParameters.builder()
+                .p(p)
+                .q(q)
+                .n(rabinKeyCalculator.calculateModulus(p, q))
+                .build();
+    }
+
+    private EllipticCurveParameters ellipticCurve(ParameterFile file) {
+        BigInteger p = prime(file, "p", "prime");
+        BigInteger a = file.number("a");
+        BigInteger b = file.number("b");
+        ECPoint basePoint = file.point("g", "generator point g", "generator point", "base point");
+        BigInteger privateKey = file.number("d", "private key", "private key example");
+
+        ECCurve curve = new ECCurve(a, b, p, basePoint);
+        return EllipticCurveParameters.builder()
+                .privateKey(privateKey)
+                .publicKey(ellipticCurveKeyCalculator.calculatePublicKey(privateKey, basePoint, curve))
+                .curve(curve)
+                .build();
+    }
+
+    private static BigInteger prime(ParameterFile file, String... names) {
+        BigInteger value = file.number(names);
+        if (!value.isProbablePrime(PRIME_CERTAINTY)) {
+            throw new InvalidInputException(names[0] + " = " + value + " is not prime in " + file.path());
+        }
+        return value;
+    }
+
+    private record ValidatedFile(CryptoAlgorithm algorithm, Map<String, String> values) {
+    }
+}
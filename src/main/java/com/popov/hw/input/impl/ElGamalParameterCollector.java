@@ -4,7 +4,7 @@ import com.popov.hw.enums.CryptoAlgorithm;
 import com.popov.hw.input.ParameterCollector;
 import com.popov.hw.model.ElGamalParameters;
 import com.popov.hw.service.ElGamalKeyCalculator;
-import com.popov.hw.ui.UserInterface;
+import com.popov.hw.ui.ParameterPrompt;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
@@ -19,7 +19,7 @@ public class ElGamalParameterCollector implements ParameterCollector<ElGamalPara
     private final ElGamalKeyCalculator keyCalculator;
 
     @Override
-    public ElGamalParameters collectParameters(UserInterface ui) {
+    public ElGamalParameters collectParameters(ParameterPrompt ui) {
         BigInteger p = new BigInteger(ui.promptInput("elgamal.enter.prime"));
         BigInteger g = new BigInteger(ui.promptInput("elgamal.enter.generator"));
         BigInteger x = new BigInteger(ui.promptInput("elgamal.enter.private.key"));
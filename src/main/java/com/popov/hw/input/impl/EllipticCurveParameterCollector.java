@@ -6,7 +6,7 @@ import com.popov.hw.model.ECCurve;
 import com.popov.hw.model.ECPoint;
 import com.popov.hw.model.EllipticCurveParameters;
 import com.popov.hw.service.EllipticCurveKeyCalculator;
-import com.popov.hw.ui.UserInterface;
+import com.popov.hw.ui.ParameterPrompt;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
@@ -21,7 +21,7 @@ public class EllipticCurveParameterCollector implements ParameterCollector<Ellip
     private final EllipticCurveKeyCalculator keyCalculator;
 
     @Override
-    public EllipticCurveParameters collectParameters(UserInterface ui) {
+    public EllipticCurveParameters collectParameters(ParameterPrompt ui) {
         BigInteger a = new BigInteger(ui.promptInput("ec.enter.curve.a"));
         BigInteger b = new BigInteger(ui.promptInput("ec.enter.curve.b"));
         BigInteger p = new BigInteger(ui.promptInput("ec.enter.prime"));
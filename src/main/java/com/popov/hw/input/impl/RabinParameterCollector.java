@@ -4,7 +4,7 @@ import com.popov.hw.enums.CryptoAlgorithm;
 import com.popov.hw.input.ParameterCollector;
 import com.popov.hw.model.RabinParameters;
 import com.popov.hw.service.RabinKeyCalculator;
-import com.popov.hw.ui.UserInterface;
+import com.popov.hw.ui.ParameterPrompt;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
@@ -19,7 +19,7 @@ public class RabinParameterCollector implements ParameterCollector<RabinParamete
     private final RabinKeyCalculator keyCalculator;
 
     @Override
-    public RabinParameters collectParameters(UserInterface ui) {
+    public RabinParameters collectParameters(ParameterPrompt ui) {
         BigInteger p = new BigInteger(ui.promptInput("rabin.enter.prime.p"));
         BigInteger q = new BigInteger(ui.promptInput("rabin.enter.prime.q"));
 
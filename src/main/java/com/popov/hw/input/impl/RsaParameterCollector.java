@@ -4,7 +4,7 @@ import com.popov.hw.enums.CryptoAlgorithm;
 import com.popov.hw.input.ParameterCollector;
 import com.popov.hw.model.RsaParameters;
 import com.popov.hw.service.RsaKeyCalculator;
-import com.popov.hw.ui.UserInterface;
+import com.popov.hw.ui.ParameterPrompt;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
@@ -19,7 +19,7 @@ public class RsaParameterCollector implements ParameterCollector<RsaParameters>
     private final RsaKeyCalculator keyCalculator;
 
     @Override
-    public RsaParameters collectParameters(UserInterface ui) {
+    public RsaParameters collectParameters(ParameterPrompt ui) {
         BigInteger e = new BigInteger(ui.promptInput("rsa.enter.public.key"));
         BigInteger p = new BigInteger(ui.promptInput("rsa.enter.prime.p"));
         BigInteger q = new BigInteger(ui.promptInput("rsa.enter.prime.q"));
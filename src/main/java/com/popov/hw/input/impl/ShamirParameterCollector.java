@@ -3,7 +3,7 @@ package com.popov.hw.input.impl;
 import com.popov.hw.enums.CryptoAlgorithm;
 import com.popov.hw.input.ParameterCollector;
 import com.popov.hw.model.ShamirParameters;
-import com.popov.hw.ui.UserInterface;
+import com.popov.hw.ui.ParameterPrompt;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
@@ -16,7 +16,7 @@ import static com.popov.hw.enums.CryptoAlgorithm.SHAMIR;
 public class ShamirParameterCollector implements ParameterCollector<ShamirParameters> {
 
     @Override
-    public ShamirParameters collectParameters(UserInterface ui) {
+    public ShamirParameters collectParameters(ParameterPrompt ui) {
         BigInteger p = new BigInteger(ui.promptInput("shamir.enter.prime"));
         BigInteger ca = new BigInteger(ui.promptInput("shamir.enter.key.a"));
         BigInteger cb = new BigInteger(ui.promptInput("shamir.enter.key.b"));
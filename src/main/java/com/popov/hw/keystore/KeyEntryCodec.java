@@ -0,0 +1,275 @@
+package com.popov.hw.keystore;
+
+import com.popov.hw.enums.CryptoAlgorithm;
+import com.popov.hw.exception.FileOperationException;
+import com.popov.hw.math.ec.ECMath;
+import com.popov.hw.math.ec.FixedBaseTable;
+import com.popov.hw.math.modular.FixedBasePowerTable;
+import com.popov.hw.model.ECCurve;
+import com.popov.hw.model.ECPoint;
+import com.popov.hw.model.ElGamalParameters;
+import com.popov.hw.model.EllipticCurveParameters;
+import com.popov.hw.model.RabinParameters;
+import com.popov.hw.model.RsaParameters;
+import com.popov.hw.model.ShamirParameters;
+import com.popov.hw.service.crypto.context.ElGamalKeyContext;
+import com.popov.hw.service.crypto.context.EllipticCurveKeyContext;
+import com.popov.hw.service.crypto.context.KeyContextCache;
+import com.popov.hw.service.crypto.context.RsaKeyContext;
+import lombok.RequiredArgsConstructor;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Payload of a key store entry: the parameters, then what is expensive to
+ * derive from them. RSA keeps its verified CRT parts, ElGamal its fixed-base
+ * power tables for {@code g} and {@code y}, EC its fixed-base tables for the
+ * base point and the public key in Montgomery form. Restored state is
+ * checked against the key before use, and once the whole payload has
+ * decoded it is put into the {@link KeyContextCache} under the keys the
+ * crypto services look up, so the first job with a stored key starts with
+ * a warm cache. Rabin and Shamir state is cheap and is derived on first use.
+ */
+@RequiredArgsConstructor
+class KeyEntryCodec {
+
+    private final KeyContextCache cache;
+
+    byte[] encode(CryptoAlgorithm algorithm, Object parameters) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            switch (algorithm) {
+                case RSA -> writeRsa(out, (RsaParameters) parameters);
+                case EL_GAMAL -> writeElGamal(out, (ElGamalParameters) parameters);
+                case SHAMIR -> writeShamir(out, (ShamirParameters) parameters);
+                case RABIN -> writeRabin(out, (RabinParameters) parameters);
+                case ELLIPTIC_CURVE -> writeEllipticCurve(out, (EllipticCurveParameters) parameters);
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @throws FileOperationException if the payload is malformed or its
+     *                                tables do not match the key
+     */
+    Object decode(CryptoAlgorithm algorithm, ByteBuffer payload) {
+        List<Runnable> restored = new ArrayList<>();
+        try {
+            Object parameters = switch (algorithm) {
+                case RSA -> readRsa(payload, restored);
+                case EL_GAMAL -> readElGamal(payload, restored);
+                case SHAMIR -> readShamir(payload);
+                case RABIN -> readRabin(payload);
+                case ELLIPTIC_CURVE -> readEllipticCurve(payload, restored);
+            };
+            if (payload.hasRemaining()) {
+                throw new FileOperationException("Corrupted key store entry: trailing bytes");
+            }
+            restored.forEach(Runnable::run);
+            return parameters;
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw new FileOperationException("Corrupted key store entry: " + e.getMessage(), e);
+        }
+    }
+
+    private void writeRsa(DataOutputStream out, RsaParameters params) throws IOException {
+        writeNumbers(out, params.e(), params.p(), params.q(), params.n(), params.d());
+        RsaKeyContext.CrtParts crt = params.d() == null ? null
+                : cache.get(RsaKeyContext.class, params, () -> RsaKeyContext.from(params)).crtParts();
+        out.writeBoolean(crt != null);
+        if (crt != null) {
+            writeNumbers(out, crt.dP(), crt.dQ(), crt.qInv());
+        }
+    }
+
+    private RsaParameters readRsa(ByteBuffer in, List<Runnable> restored) {
+        RsaParameters params = RsaParameters.builder()
+                .e(readNumber(in))
+                .p(readNumber(in))
+                .q(readNumber(in))
+                .n(readNumber(in))
+                .d(readNumber(in))
+                .build();
+        boolean crt = in.get() != 0;
+        RsaKeyContext.CrtParts parts = crt ? new RsaKeyContext.CrtParts(readNumber(in), readNumber(in), readNumber(in)) : null;
+        if (params.d() != null) {
+            RsaKeyContext context = RsaKeyContext.restore(params, parts);
+            restored.add(() -> cache.put(RsaKeyContext.class, params, context));
+        }
+        return params;
+    }
+
+    private void writeElGamal(DataOutputStream out, ElGamalParameters params) throws IOException {
+        writeNumbers(out, params.p(), params.g(), params.x(), params.publicKey());
+        boolean tables = params.publicKey() != null;
+        out.writeBoolean(tables);
+        if (tables) {
+            ElGamalKeyContext context = cache.get(ElGamalKeyContext.class, params, () -> ElGamalKeyContext.from(params));
+            writeTable(out, context.generatorTable());
+            writeTable(out, context.publicKeyTable());
+        }
+    }
+
+    private ElGamalParameters readElGamal(ByteBuffer in, List<Runnable> restored) {
+        ElGamalParameters params = ElGamalParameters.builder()
+                .p(readNumber(in))
+                .g(readNumber(in))
+                .x(readNumber(in))
+                .publicKey(readNumber(in))
+                .build();
+        if (in.get() != 0) {
+            FixedBasePowerTable generator = readTable(in, params.g(), params.p());
+            FixedBasePowerTable publicKey = readTable(in, params.publicKey(), params.p());
+            ElGamalKeyContext context = ElGamalKeyContext.withTables(params, generator, publicKey);
+            restored.add(() -> cache.put(ElGamalKeyContext.class, params, context));
+        }
+        return params;
+    }
+
+    private void writeShamir(DataOutputStream out, ShamirParameters params) throws IOException {
+        writeNumber(out, params.p());
+        BigInteger[] keys = params.keyPair();
+        out.writeInt(keys.length);
+        writeNumbers(out, keys);
+    }
+
+    private ShamirParameters readShamir(ByteBuffer in) {
+        BigInteger p = readNumber(in);
+        int count = in.getInt();
+        if (count < 0 || count > in.remaining()) {
+            throw new IllegalArgumentException("invalid key count " + count);
+        }
+        BigInteger[] keys = new BigInteger[count];
+        for (int i = 0; i < count; i++) {
+            keys[i] = readNumber(in);
+        }
+        return ShamirParameters.builder().p(p).keyPair(keys).build();
+    }
+
+    private void writeRabin(DataOutputStream out, RabinParameters params) throws IOException {
+        writeNumbers(out, params.p(), params.q(), params.n());
+    }
+
+    private RabinParameters readRabin(ByteBuffer in) {
+        return RabinParameters.builder()
+                .p(readNumber(in))
+                .q(readNumber(in))
+                .n(readNumber(in))
+                .build();
+    }
+
+    private void writeEllipticCurve(DataOutputStream out, EllipticCurveParameters params) throws IOException {
+        ECCurve curve = params.curve();
+        writeNumbers(out, curve.a(), curve.b(), curve.p(), curve.basePoint().x(), curve.basePoint().y());
+        writeNumbers(out, params.privateKey(), params.publicKey().x(), params.publicKey().y());
+
+        EllipticCurveKeyContext context = cache.get(EllipticCurveKeyContext.class,
+                EllipticCurveKeyContext.cacheKey(curve, params.publicKey()),
+                () -> EllipticCurveKeyContext.of(curve, params.publicKey()));
+        writeLimbs(out, context.baseTable().toLimbs());
+        writeLimbs(out, context.publicKeyTable().toLimbs());
+    }
+
+    private EllipticCurveParameters readEllipticCurve(ByteBuffer in, List<Runnable> restored) {
+        BigInteger a = readNumber(in);
+        BigInteger b = readNumber(in);
+        BigInteger p = readNumber(in);
+        ECCurve curve = new ECCurve(a, b, p, new ECPoint(readNumber(in), readNumber(in)));
+        BigInteger privateKey = readNumber(in);
+        ECPoint publicKey = new ECPoint(readNumber(in), readNumber(in));
+
+        ECMath arithmetic = new ECMath(curve);
+        int maxBits = p.bitLength();
+        FixedBaseTable baseTable = FixedBaseTable.fromLimbs(arithmetic, curve.basePoint(), maxBits, readLimbs(in));
+        FixedBaseTable publicKeyTable = FixedBaseTable.fromLimbs(arithmetic, publicKey, maxBits, readLimbs(in));
+        EllipticCurveKeyContext context =
+                EllipticCurveKeyContext.withTables(curve, publicKey, arithmetic, baseTable, publicKeyTable);
+        restored.add(() -> {
+            cache.put(ECMath.class, curve, arithmetic);
+            cache.put(EllipticCurveKeyContext.class, EllipticCurveKeyContext.cacheKey(curve, publicKey), context);
+        });
+
+        return EllipticCurveParameters.builder()
+                .privateKey(privateKey)
+                .publicKey(publicKey)
+                .curve(curve)
+                .build();
+    }
+
+    private static void writeTable(DataOutputStream out, FixedBasePowerTable table) throws IOException {
+        byte[] entries = table.toBytes();
+        out.writeByte(table.window());
+        out.writeInt(entries.length);
+        out.write(entries);
+    }
+
+    private static FixedBasePowerTable readTable(ByteBuffer in, BigInteger base, BigInteger modulus) {
+        int window = in.get();
+        int length = length(in, 1);
+        ByteBuffer entries = in.slice(in.position(), length);
+        in.position(in.position() + length);
+        return FixedBasePowerTable.fromBytes(base, modulus, modulus.bitLength(), window, entries);
+    }
+
+    private static void writeLimbs(DataOutputStream out, long[] limbs) throws IOException {
+        out.writeInt(limbs.length);
+        for (long limb : limbs) {
+            out.writeLong(limb);
+        }
+    }
+
+    private static long[] readLimbs(ByteBuffer in) {
+        long[] limbs = new long[length(in, Long.BYTES)];
+        in.asLongBuffer().get(limbs);
+        in.position(in.position() + limbs.length * Long.BYTES);
+        return limbs;
+    }
+
+    private static void writeNumbers(DataOutputStream out, BigInteger... values) throws IOException {
+        for (BigInteger value : values) {
+            writeNumber(out, value);
+        }
+    }
+
+    /**
+     * A length-prefixed two's-complement number; length {@code -1} is {@code null}.
+     */
+    private static void writeNumber(DataOutputStream out, BigInteger value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.toByteArray();
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static BigInteger readNumber(ByteBuffer in) {
+        int length = in.getInt();
+        if (length == -1) {
+            return null;
+        }
+        if (length <= 0 || length > in.remaining()) {
+            throw new IllegalArgumentException("invalid number length " + length);
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new BigInteger(bytes);
+    }
+
+    private static int length(ByteBuffer in, int unit) {
+        int length = in.getInt();
+        if (length < 0 || (long) length * unit > in.remaining()) {
+            throw new IllegalArgumentException("invalid length " + length);
+        }
+        return length;
+    }
+}
@@ -0,0 +1,95 @@
+package com.popov.hw.keystore;
+
+import com.popov.hw.enums.CryptoAlgorithm;
+import com.popov.hw.exception.FileOperationException;
+import com.popov.hw.service.crypto.context.KeyContextCache;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+
+/**
+ * Local file-backed key store (see {@link KeyStoreFormat}). Saving a key
+ * writes its parameters together with the precomputed state the crypto
+ * services would otherwise rebuild in every process; loading maps the file
+ * into memory and restores that state into the {@link KeyContextCache}
+ * instead of recomputing it.
+ */
+@Slf4j
+@Service
+public class KeyStore {
+
+    private static final int OUTPUT_BUFFER_SIZE = 64 * 1024;
+
+    private final KeyEntryCodec codec;
+
+    public KeyStore(KeyContextCache cache) {
+        this.codec = new KeyEntryCodec(cache);
+    }
+
+    /**
+     * @throws FileOperationException if the store has no such key or is corrupted
+     */
+    public StoredKey load(Path store, String alias) throws IOException {
+        long start = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(store, StandardOpenOption.READ)) {
+            KeyStoreFormat.Entry entry = KeyStoreFormat.index(map(channel)).get(alias);
+            if (entry == null) {
+                throw new FileOperationException("No key '" + alias + "' in " + store);
+            }
+            KeyStoreFormat.verify(entry);
+            Object parameters = codec.decode(entry.algorithm(), entry.payload());
+            log.info("Loaded key '{}' ({}) from {} in {} ms", alias, entry.algorithm(), store,
+                    (System.nanoTime() - start) / 1_000_000);
+            return new StoredKey(alias, entry.algorithm(), parameters);
+        }
+    }
+
+    /**
+     * Adds the key under {@code alias}, replacing a key with the same alias.
+     * The store is rewritten to a temporary file and moved into place, so a
+     * failed save leaves the previous store intact.
+     */
+    public void save(Path store, String alias, CryptoAlgorithm algorithm, Object parameters) throws IOException {
+        byte[] payload = codec.encode(algorithm, parameters);
+        Path directory = store.toAbsolutePath().getParent();
+        Path temporary = Files.createTempFile(directory, store.getFileName().toString(), ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(temporary), OUTPUT_BUFFER_SIZE))) {
+                KeyStoreFormat.writeHeader(out);
+                if (Files.exists(store)) {
+                    copyEntries(store, alias, out);
+                }
+                KeyStoreFormat.writeEntry(out, alias, algorithm, payload);
+            }
+            Files.move(temporary, store, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+        log.info("Saved key '{}' ({}) to {}, {} bytes", alias, algorithm, store, payload.length);
+    }
+
+    private static void copyEntries(Path store, String skippedAlias, DataOutputStream out) throws IOException {
+        try (FileChannel channel = FileChannel.open(store, StandardOpenOption.READ)) {
+            for (Map.Entry<String, KeyStoreFormat.Entry> entry : KeyStoreFormat.index(map(channel)).entrySet()) {
+                if (!entry.getKey().equals(skippedAlias)) {
+                    entry.getValue().write(out);
+                }
+            }
+        }
+    }
+
+    private static ByteBuffer map(FileChannel channel) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+}
@@ -0,0 +1,139 @@
+package com.popov.hw.keystore;
+
+import com.popov.hw.enums.CryptoAlgorithm;
+import com.popov.hw.exception.FileOperationException;
+import lombok.experimental.UtilityClass;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Layout of a key store file:
+ * <pre>
+ * magic "KAIK" | version u8 | entries...
+ * entry: alias length u16 | alias UTF-8 | algorithm u8 | payload length u32 | payload CRC-32 u32 | payload
+ * </pre>
+ * The payload holds the key parameters followed by their precomputed state,
+ * see {@link KeyEntryCodec}. All numbers are big-endian.
+ */
+@UtilityClass
+class KeyStoreFormat {
+
+    static final byte VERSION = 1;
+
+    private static final byte[] MAGIC = {'K', 'A', 'I', 'K'};
+    private static final int ENTRY_HEADER_SIZE = Short.BYTES + Byte.BYTES + 2 * Integer.BYTES;
+
+    /**
+     * One entry of a mapped store; {@code payload} is a read-only view of
+     * the mapped file.
+     */
+    record Entry(String alias, CryptoAlgorithm algorithm, int checksum, ByteBuffer payload) {
+
+        void write(DataOutputStream out) throws IOException {
+            byte[] bytes = new byte[payload.remaining()];
+            payload.duplicate().get(bytes);
+            writeEntry(out, alias, algorithm, checksum, bytes);
+        }
+    }
+
+    static void writeHeader(DataOutputStream out) throws IOException {
+        out.write(MAGIC);
+        out.writeByte(VERSION);
+    }
+
+    static void writeEntry(DataOutputStream out, String alias, CryptoAlgorithm algorithm, byte[] payload)
+            throws IOException {
+        writeEntry(out, alias, algorithm, checksum(payload), payload);
+    }
+
+    /**
+     * Indexes the entries of a store by alias without decoding them.
+     *
+     * @throws FileOperationException if the file is not a key store or is
+     *                                truncated
+     */
+    static Map<String, Entry> index(ByteBuffer store) {
+        byte[] magic = new byte[MAGIC.length];
+        if (store.remaining() < MAGIC.length + 1) {
+            throw new FileOperationException("Not a key store");
+        }
+        store.get(magic);
+        if (!Arrays.equals(magic, MAGIC)) {
+            throw new FileOperationException("Not a key store");
+        }
+        byte version = store.get();
+        if (version != VERSION) {
+            throw new FileOperationException("Unsupported key store version: " + version);
+        }
+
+        Map<String, Entry> entries = new LinkedHashMap<>();
+        while (store.hasRemaining()) {
+            if (store.remaining() < ENTRY_HEADER_SIZE) {
+                throw new FileOperationException("Truncated key store");
+            }
+            byte[] alias = new byte[Short.toUnsignedInt(store.getShort())];
+            if (store.remaining() < alias.length + ENTRY_HEADER_SIZE - Short.BYTES) {
+                throw new FileOperationException("Truncated key store");
+            }
+            store.get(alias);
+            CryptoAlgorithm algorithm = algorithm(store.get());
+            int length = store.getInt();
+            int checksum = store.getInt();
+            if (length < 0 || length > store.remaining()) {
+                throw new FileOperationException("Truncated key store");
+            }
+            ByteBuffer payload = store.slice(store.position(), length);
+            store.position(store.position() + length);
+
+            String name = new String(alias, StandardCharsets.UTF_8);
+            entries.put(name, new Entry(name, algorithm, checksum, payload));
+        }
+        return entries;
+    }
+
+    /**
+     * @throws FileOperationException if the payload does not match its checksum
+     */
+    static void verify(Entry entry) {
+        CRC32 crc = new CRC32();
+        crc.update(entry.payload().duplicate());
+        if ((int) crc.getValue() != entry.checksum()) {
+            throw new FileOperationException("Key store entry '" + entry.alias() + "' is corrupted");
+        }
+    }
+
+    private static CryptoAlgorithm algorithm(byte number) {
+        try {
+            return CryptoAlgorithm.fromNumber(number);
+        } catch (IllegalArgumentException e) {
+            throw new FileOperationException("Corrupted key store: unknown algorithm " + number, e);
+        }
+    }
+
+    private static void writeEntry(DataOutputStream out, String alias, CryptoAlgorithm algorithm, int checksum,
+                                   byte[] payload) throws IOException {
+        byte[] name = alias.getBytes(StandardCharsets.UTF_8);
+        if (name.length > 0xFFFF) {
+            throw new IllegalArgumentException("Key alias is too long");
+        }
+        out.writeShort(name.length);
+        out.write(name);
+        out.writeByte(algorithm.getNumber());
+        out.writeInt(payload.length);
+        out.writeInt(checksum);
+        out.write(payload);
+    }
+
+    private static int checksum(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+}
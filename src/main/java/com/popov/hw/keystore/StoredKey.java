@@ -0,0 +1,10 @@
+package com.popov.hw.keystore;
+
+import com.popov.hw.enums.CryptoAlgorithm;
+
+/**
+ * A key read from a {@link KeyStore}: its alias, its algorithm and the
+ * {@code *Parameters} record the crypto services take.
+ */
+public record StoredKey(String alias, CryptoAlgorithm algorithm, Object parameters) {
+}
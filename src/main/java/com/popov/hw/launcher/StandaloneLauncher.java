@@ -0,0 +1,152 @@
+package com.popov.hw.launcher;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.popov.hw.batch.BatchArguments;
+import com.popov.hw.batch.BatchRunner;
+import com.popov.hw.config.ConcurrencyConfig;
+import com.popov.hw.config.CryptoProperties;
+import com.popov.hw.config.LocalizationConfig;
+import com.popov.hw.coordinator.ApplicationCoordinator;
+import com.popov.hw.enums.CiphertextFormat;
+import com.popov.hw.i18n.MessageService;
+import com.popov.hw.input.ParameterCollectorFactory;
+import com.popov.hw.input.file.ParameterFileValidator;
+import com.popov.hw.input.impl.ElGamalParameterCollector;
+import com.popov.hw.input.impl.EllipticCurveParameterCollector;
+import com.popov.hw.input.impl.RabinParameterCollector;
+import com.popov.hw.input.impl.RsaParameterCollector;
+import com.popov.hw.input.impl.ShamirParameterCollector;
+import com.popov.hw.keystore.KeyStore;
+import com.popov.hw.operation.OperationExecutorFactory;
+import com.popov.hw.operation.impl.ElGamalOperationExecutor;
+import com.popov.hw.operation.impl.EllipticCurveOperationExecutor;
+import com.popov.hw.operation.impl.RabinOperationExecutor;
+import com.popov.hw.operation.impl.RsaOperationExecutor;
+import com.popov.hw.operation.impl.ShamirOperationExecutor;
+import com.popov.hw.service.ElGamalKeyCalculator;
+import com.popov.hw.service.EllipticCurveKeyCalculator;
+import com.popov.hw.service.RabinKeyCalculator;
+import com.popov.hw.service.RsaKeyCalculator;
+import com.popov.hw.service.crypto.ElGamalCryptoService;
+import com.popov.hw.service.crypto.EllipticCurveCryptoService;
+import com.popov.hw.service.crypto.RabinCryptoService;
+import com.popov.hw.service.crypto.RsaCryptoService;
+import com.popov.hw.service.crypto.ShamirCryptoService;
+import com.popov.hw.service.crypto.context.KeyContextCache;
+import com.popov.hw.service.crypto.ephemeral.EphemeralPrecomputer;
+import com.popov.hw.service.crypto.pipeline.BlockCipherEngine;
+import com.popov.hw.service.crypto.pipeline.MappedBlockProcessor;
+import com.popov.hw.service.crypto.pipeline.ParallelBlockPipeline;
+import com.popov.hw.service.crypto.random.NonceSupply;
+import com.popov.hw.service.crypto.threepass.ThreePassExchange;
+import com.popov.hw.ui.impl.ConsoleUserInterface;
+import com.popov.hw.workflow.WorkflowBatchScheduler;
+import com.popov.hw.workflow.WorkflowExecutor;
+import com.popov.hw.workflow.WorkflowRequestBuilder;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.DefaultApplicationArguments;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Spring-free entry point for one-shot runs. It wires the same components as
+ * the Spring context by hand, so start-up costs no classpath scanning,
+ * auto-configuration or YAML parsing. Settings are read from
+ * {@code -Dcrypto.*} system properties instead of {@code application.yml}.
+ * <pre>
+ * java -cp app.jar -Dloader.main=com.popov.hw.launcher.StandaloneLauncher \
+ *      org.springframework.boot.loader.launch.PropertiesLauncher --batch ...
+ * </pre>
+ * An AppCDS archive ({@code -XX:ArchiveClassesAtExit} once, then
+ * {@code -XX:SharedArchiveFile}) shortens start-up further.
+ */
+public final class StandaloneLauncher {
+
+    private StandaloneLauncher() {
+    }
+
+    public static void main(String[] args) {
+        disableLogging();
+        CryptoProperties properties = properties();
+        ConcurrencyConfig concurrency = new ConcurrencyConfig();
+        ForkJoinPool cryptoPool = concurrency.cryptoPool(properties);
+        ExecutorService batchJobExecutor = concurrency.batchJobExecutor(properties);
+        MessageService messageService = new MessageService(new LocalizationConfig().messageSource());
+
+        BlockCipherEngine engine = new BlockCipherEngine(
+                new ParallelBlockPipeline(cryptoPool, properties),
+                new MappedBlockProcessor(cryptoPool),
+                properties);
+        NonceSupply nonceSupply = new NonceSupply(properties);
+        EphemeralPrecomputer precomputer = new EphemeralPrecomputer(properties);
+        KeyContextCache cache = new KeyContextCache(properties);
+
+        OperationExecutorFactory executorFactory = new OperationExecutorFactory(List.of(
+                new RsaOperationExecutor(new RsaCryptoService(engine, cache), messageService),
+                new ElGamalOperationExecutor(new ElGamalCryptoService(engine, nonceSupply, precomputer, cache), messageService),
+                new ShamirOperationExecutor(new ShamirCryptoService(engine, new ThreePassExchange(properties), cache), messageService),
+                new RabinOperationExecutor(new RabinCryptoService(engine, properties, cache), messageService),
+                new EllipticCurveOperationExecutor(new EllipticCurveCryptoService(engine, nonceSupply, precomputer, cache), messageService)));
+
+        RsaKeyCalculator rsaKeyCalculator = new RsaKeyCalculator(cache);
+        ElGamalKeyCalculator elGamalKeyCalculator = new ElGamalKeyCalculator(cache);
+        RabinKeyCalculator rabinKeyCalculator = new RabinKeyCalculator();
+        EllipticCurveKeyCalculator ellipticCurveKeyCalculator = new EllipticCurveKeyCalculator(cache);
+        ParameterCollectorFactory collectorFactory = new ParameterCollectorFactory(List.of(
+                new RsaParameterCollector(rsaKeyCalculator),
+                new ElGamalParameterCollector(elGamalKeyCalculator),
+                new ShamirParameterCollector(),
+                new RabinParameterCollector(rabinKeyCalculator),
+                new EllipticCurveParameterCollector(ellipticCurveKeyCalculator)));
+        ParameterFileValidator parameterFileValidator = new ParameterFileValidator(
+                rsaKeyCalculator, elGamalKeyCalculator, rabinKeyCalculator, ellipticCurveKeyCalculator, cache);
+
+        WorkflowExecutor workflowExecutor = new WorkflowExecutor(executorFactory, messageService);
+
+        int exitCode = BatchRunner.EXIT_OK;
+        try {
+            DefaultApplicationArguments arguments = new DefaultApplicationArguments(args);
+            if (BatchArguments.isBatch(arguments)) {
+                WorkflowBatchScheduler scheduler = new WorkflowBatchScheduler(workflowExecutor, batchJobExecutor, properties);
+                BatchRunner runner = new BatchRunner(
+                        collectorFactory, scheduler, messageService, new KeyStore(cache), parameterFileValidator);
+                exitCode = runner.execute(arguments);
+            } else {
+                ConsoleUserInterface userInterface = new ConsoleUserInterface(messageService);
+                new ApplicationCoordinator(
+                        new WorkflowRequestBuilder(userInterface, collectorFactory, messageService),
+                        workflowExecutor,
+                        userInterface).run();
+            }
+        } finally {
+            batchJobExecutor.shutdown();
+            cryptoPool.shutdown();
+        }
+        System.exit(exitCode);
+    }
+
+    /**
+     * Same effect as {@code logging.level.root: OFF} in {@code application.yml}.
+     */
+    private static void disableLogging() {
+        ((Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME)).setLevel(Level.OFF);
+    }
+
+    private static CryptoProperties properties() {
+        String format = System.getProperty("crypto.format");
+        return new CryptoProperties(
+                Integer.getInteger("crypto.parallelism", 0),
+                Integer.getInteger("crypto.chunk-size", 0),
+                format == null ? null : CiphertextFormat.valueOf(format.trim().toUpperCase(Locale.ROOT)),
+                Boolean.getBoolean("crypto.memory-mapped"),
+                Integer.getInteger("crypto.batch-concurrency", 0),
+                Boolean.getBoolean("crypto.rabin-redundancy"),
+                Integer.getInteger("crypto.nonce-queue-capacity", 0),
+                Integer.getInteger("crypto.ephemeral-pool-capacity", 0),
+                Integer.getInteger("crypto.key-cache-size", 0));
+    }
+}
@@ -0,0 +1,280 @@
+package com.popov.hw.math.ec;
+
+import com.popov.hw.math.modular.MontgomeryField;
+import com.popov.hw.model.ECCurve;
+import com.popov.hw.model.ECPoint;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+
+/**
+ * Group arithmetic on {@code y^2 = x^3 + ax + b (mod p)}, shared by key
+ * derivation and the crypto service. Work is done in Jacobian coordinates, so
+ * intermediate results never need a field inversion; only the final
+ * conversion back to affine coordinates costs one {@code modInverse}. Field
+ * elements are kept in Montgomery form on {@code long[]} limbs
+ * ({@link MontgomeryField}) and scalar multiplication updates a
+ * {@link JacobianAccumulator} in place, so its loop does not allocate. Affine
+ * points are immutable {@link ECPoint}s with {@link ECPoint#INFINITY} as the
+ * identity.
+ */
+public final class ECMath {
+
+    private static final BigInteger THREE = BigInteger.valueOf(3);
+    private static final BigInteger FOUR = BigInteger.valueOf(4);
+    private static final BigInteger TWENTY_SEVEN = BigInteger.valueOf(27);
+
+    private final BigInteger p;
+    private final BigInteger a;
+    private final BigInteger b;
+    private final MontgomeryField field;
+    private final long[] montgomeryA;
+    private final long[] one;
+
+    /**
+     * @throws IllegalArgumentException if the modulus is not odd and greater
+     *                                  than 3 or the curve is singular
+     */
+    public ECMath(ECCurve curve) {
+        if (curve.p().compareTo(THREE) <= 0 || !curve.p().testBit(0)) {
+            throw new IllegalArgumentException("Curve modulus must be odd and greater than 3");
+        }
+        this.p = curve.p();
+        this.a = curve.a().mod(p);
+        this.b = curve.b().mod(p);
+
+        BigInteger discriminant = FOUR.multiply(a.pow(3)).add(TWENTY_SEVEN.multiply(b.pow(2))).mod(p);
+        if (discriminant.signum() == 0) {
+            throw new IllegalArgumentException("Curve is singular: 4a^3 + 27b^2 = 0 (mod p)");
+        }
+
+        this.field = new MontgomeryField(p);
+        this.montgomeryA = field.toMontgomery(a);
+        this.one = field.one();
+    }
+
+    public boolean isOnCurve(ECPoint point) {
+        if (point.isInfinity()) {
+            return true;
+        }
+        BigInteger x = point.x();
+        BigInteger y = point.y();
+        if (x.signum() < 0 || x.compareTo(p) >= 0 || y.signum() < 0 || y.compareTo(p) >= 0) {
+            return false;
+        }
+        BigInteger right = x.multiply(x).add(a).multiply(x).add(b).mod(p);
+        return y.multiply(y).mod(p).equals(right);
+    }
+
+    /**
+     * @throws IllegalArgumentException if {@code point} is not on the curve
+     */
+    public ECPoint requireOnCurve(ECPoint point, String name) {
+        if (!isOnCurve(point)) {
+            throw new IllegalArgumentException(name + " is not on the curve");
+        }
+        return point;
+    }
+
+    /**
+     * Variable-base scalar multiplication using a width-w NAF of the scalar
+     * and a table of odd multiples {@code P, 3P, 5P, ...} normalized to affine
+     * coordinates with a single inversion.
+     */
+    public ECPoint multiply(ECPoint point, BigInteger scalar) {
+        if (point.isInfinity() || scalar.signum() == 0) {
+            return ECPoint.INFINITY;
+        }
+        if (scalar.signum() < 0) {
+            return multiply(negate(point), scalar.negate());
+        }
+
+        int window = scalar.bitLength() > 192 ? 5 : 4;
+        JacobianPoint[] oddMultiples = oddMultiples(point, 1 << (window - 2));
+        JacobianPoint[] negatedMultiples = new JacobianPoint[oddMultiples.length];
+        for (int i = 0; i < oddMultiples.length; i++) {
+            negatedMultiples[i] = negate(oddMultiples[i]);
+        }
+        int[] digits = wnaf(scalar, window);
+
+        JacobianAccumulator result = accumulator();
+        for (int i = digits.length - 1; i >= 0; i--) {
+            result.twice();
+            int digit = digits[i];
+            if (digit > 0) {
+                result.addAffine(oddMultiples[digit >> 1]);
+            } else if (digit < 0) {
+                result.addAffine(negatedMultiples[-digit >> 1]);
+            }
+        }
+        return toAffine(result.toPoint());
+    }
+
+    /**
+     * Adds two affine points. Operands are not required to lie on the curve:
+     * the chord and tangent formulas do not depend on {@code b}.
+     */
+    public ECPoint add(ECPoint p1, ECPoint p2) {
+        if (p1.isInfinity()) return p2;
+        if (p2.isInfinity()) return p1;
+        return toAffine(addAffine(toJacobian(p1), p2));
+    }
+
+    public ECPoint negate(ECPoint point) {
+        if (point.isInfinity()) {
+            return point;
+        }
+        return new ECPoint(point.x(), p.subtract(point.y()).mod(p));
+    }
+
+    public JacobianPoint toJacobian(ECPoint point) {
+        if (point.isInfinity()) {
+            return JacobianPoint.INFINITY;
+        }
+        return new JacobianPoint(field.toMontgomery(point.x()), field.toMontgomery(point.y()), one.clone());
+    }
+
+    /**
+     * Converts many points to affine coordinates with one shared inversion
+     * (Montgomery's trick).
+     */
+    public ECPoint[] toAffine(JacobianPoint[] points) {
+        JacobianPoint[] normalized = normalize(points);
+        ECPoint[] affine = new ECPoint[points.length];
+        for (int i = 0; i < normalized.length; i++) {
+            JacobianPoint point = normalized[i];
+            affine[i] = point.isInfinity()
+                    ? ECPoint.INFINITY
+                    : new ECPoint(field.fromMontgomery(point.x()), field.fromMontgomery(point.y()));
+        }
+        return affine;
+    }
+
+    public ECPoint toAffine(JacobianPoint point) {
+        return toAffine(new JacobianPoint[]{point})[0];
+    }
+
+    public JacobianPoint twice(JacobianPoint point) {
+        JacobianAccumulator result = accumulator();
+        result.set(point);
+        result.twice();
+        return result.toPoint();
+    }
+
+    public JacobianPoint add(JacobianPoint p1, JacobianPoint p2) {
+        JacobianAccumulator result = accumulator();
+        result.set(p1);
+        result.add(p2);
+        return result.toPoint();
+    }
+
+    /**
+     * Mixed addition of a Jacobian point and an affine point ({@code z2 = 1}).
+     */
+    public JacobianPoint addAffine(JacobianPoint p1, ECPoint p2) {
+        if (p2.isInfinity()) return p1;
+        JacobianAccumulator result = accumulator();
+        result.set(p1);
+        result.addAffine(toJacobian(p2));
+        return result.toPoint();
+    }
+
+    int fieldSize() {
+        return field.size();
+    }
+
+    JacobianAccumulator accumulator() {
+        return new JacobianAccumulator(field, montgomeryA);
+    }
+
+    /**
+     * Rescales points to {@code z = 1} with one shared inversion
+     * (Montgomery's trick), so they can be used in mixed additions.
+     */
+    JacobianPoint[] normalize(JacobianPoint[] points) {
+        long[][] prefix = new long[points.length][];
+        long[] product = one;
+        for (int i = 0; i < points.length; i++) {
+            if (!points[i].isInfinity()) {
+                product = multiply(product, points[i].z());
+            }
+            prefix[i] = product;
+        }
+
+        JacobianPoint[] normalized = new JacobianPoint[points.length];
+        long[] inverse = field.toMontgomery(field.fromMontgomery(product).modInverse(p));
+        for (int i = points.length - 1; i >= 0; i--) {
+            JacobianPoint point = points[i];
+            if (point.isInfinity()) {
+                normalized[i] = JacobianPoint.INFINITY;
+                continue;
+            }
+            long[] zInverse = multiply(inverse, i == 0 ? one : prefix[i - 1]);
+            inverse = multiply(inverse, point.z());
+
+            long[] zInverse2 = multiply(zInverse, zInverse);
+            normalized[i] = new JacobianPoint(
+                    multiply(point.x(), zInverse2),
+                    multiply(point.y(), multiply(zInverse2, zInverse)),
+                    one);
+        }
+        return normalized;
+    }
+
+    private JacobianPoint negate(JacobianPoint point) {
+        if (point.isInfinity()) {
+            return point;
+        }
+        long[] y = field.newElement();
+        field.subtract(y, point.y(), y);
+        return new JacobianPoint(point.x(), y, point.z());
+    }
+
+    private long[] multiply(long[] x, long[] y) {
+        long[] product = field.newElement();
+        field.multiply(x, y, product);
+        return product;
+    }
+
+    private JacobianPoint[] oddMultiples(ECPoint point, int count) {
+        JacobianPoint[] multiples = new JacobianPoint[count];
+        multiples[0] = toJacobian(point);
+        JacobianAccumulator accumulator = accumulator();
+        accumulator.set(multiples[0]);
+        accumulator.twice();
+        JacobianPoint twice = accumulator.toPoint();
+
+        accumulator.set(multiples[0]);
+        for (int i = 1; i < count; i++) {
+            accumulator.add(twice);
+            multiples[i] = accumulator.toPoint();
+        }
+        return normalize(multiples);
+    }
+
+    /**
+     * Width-w non-adjacent form, least significant digit first. Every
+     * non-zero digit is odd and lies in {@code (-2^(w-1), 2^(w-1))}.
+     */
+    static int[] wnaf(BigInteger scalar, int window) {
+        int modulus = 1 << window;
+        int half = modulus >> 1;
+        int[] digits = new int[scalar.bitLength() + 1];
+        int length = 0;
+
+        BigInteger k = scalar;
+        while (k.signum() > 0) {
+            int digit = 0;
+            if (k.testBit(0)) {
+                digit = k.intValue() & (modulus - 1);
+                if (digit >= half) {
+                    digit -= modulus;
+                }
+                k = k.subtract(BigInteger.valueOf(digit));
+            }
+            digits[length++] = digit;
+            k = k.shiftRight(1);
+        }
+        return Arrays.copyOf(digits, length);
+    }
+}
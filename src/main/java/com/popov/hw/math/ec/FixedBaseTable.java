@@ -0,0 +1,149 @@
+package com.popov.hw.math.ec;
+
+import com.popov.hw.model.ECPoint;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+
+/**
+ * Precomputed multiples of a fixed point for a fixed-window method: row
+ * {@code i} holds {@code j * 2^(w*i) * P} for {@code j = 1 .. 2^w - 1}
+ * normalized to {@code z = 1}, so {@code k * P} is a sum of one table entry per window of
+ * {@code k} and needs no doublings at all. Instances are immutable and can be
+ * shared between threads.
+ */
+public final class FixedBaseTable {
+
+    private static final int WINDOW = 4;
+    private static final int ENTRIES = (1 << WINDOW) - 1;
+
+    private final ECMath curve;
+    private final ECPoint base;
+    private final int maxBits;
+    private final JacobianPoint[][] rows;
+
+    public FixedBaseTable(ECMath curve, ECPoint base, int maxBits) {
+        this(curve, base, maxBits, build(curve, base, rowCount(maxBits)));
+    }
+
+    private FixedBaseTable(ECMath curve, ECPoint base, int maxBits, JacobianPoint[][] rows) {
+        this.curve = curve;
+        this.base = base;
+        this.maxBits = maxBits;
+        this.rows = rows;
+    }
+
+    /**
+     * Restores a table saved with {@link #toLimbs()} without recomputing it.
+     *
+     * @throws IllegalArgumentException if {@code limbs} has the wrong length
+     *                                  for the curve and {@code maxBits}, or
+     *                                  the first entry is not {@code base}
+     */
+    public static FixedBaseTable fromLimbs(ECMath curve, ECPoint base, int maxBits, long[] limbs) {
+        int size = curve.fieldSize();
+        int rowCount = rowCount(maxBits);
+        if (limbs.length != rowCount * ENTRIES * 3 * size) {
+            throw new IllegalArgumentException("Fixed-base table does not match the curve");
+        }
+
+        JacobianPoint[][] rows = new JacobianPoint[rowCount][ENTRIES];
+        int offset = 0;
+        for (int row = 0; row < rowCount; row++) {
+            for (int j = 0; j < ENTRIES; j++) {
+                JacobianPoint point = new JacobianPoint(
+                        Arrays.copyOfRange(limbs, offset, offset + size),
+                        Arrays.copyOfRange(limbs, offset + size, offset + 2 * size),
+                        Arrays.copyOfRange(limbs, offset + 2 * size, offset + 3 * size));
+                rows[row][j] = point.isInfinity() ? JacobianPoint.INFINITY : point;
+                offset += 3 * size;
+            }
+        }
+        if (!curve.toAffine(rows[0][0]).equals(base)) {
+            throw new IllegalArgumentException("Fixed-base table was built for another point");
+        }
+        return new FixedBaseTable(curve, base, maxBits, rows);
+    }
+
+    public int maxBits() {
+        return maxBits;
+    }
+
+    /**
+     * The entries row by row, each as its x, y and z limbs in Montgomery
+     * form; the point at infinity is all zeros.
+     */
+    public long[] toLimbs() {
+        int size = curve.fieldSize();
+        long[] limbs = new long[rows.length * ENTRIES * 3 * size];
+        int offset = 0;
+        for (JacobianPoint[] row : rows) {
+            for (JacobianPoint point : row) {
+                if (!point.isInfinity()) {
+                    System.arraycopy(point.x(), 0, limbs, offset, size);
+                    System.arraycopy(point.y(), 0, limbs, offset + size, size);
+                    System.arraycopy(point.z(), 0, limbs, offset + 2 * size, size);
+                }
+                offset += 3 * size;
+            }
+        }
+        return limbs;
+    }
+
+    public ECPoint base() {
+        return base;
+    }
+
+    public ECPoint multiply(BigInteger scalar) {
+        if (scalar.signum() < 0 || scalar.bitLength() > maxBits) {
+            return curve.multiply(base, scalar);
+        }
+
+        JacobianAccumulator result = curve.accumulator();
+        for (int row = 0; row < rows.length; row++) {
+            int digit = window(scalar, row * WINDOW);
+            if (digit != 0) {
+                result.addAffine(rows[row][digit - 1]);
+            }
+        }
+        return curve.toAffine(result.toPoint());
+    }
+
+    private static int rowCount(int maxBits) {
+        return (maxBits + WINDOW - 1) / WINDOW;
+    }
+
+    private static JacobianPoint[][] build(ECMath curve, ECPoint base, int rowCount) {
+        JacobianPoint[] all = new JacobianPoint[rowCount * ENTRIES];
+        JacobianAccumulator rowBase = curve.accumulator();
+        JacobianAccumulator multiple = curve.accumulator();
+        rowBase.set(curve.toJacobian(base));
+
+        for (int row = 0; row < rowCount; row++) {
+            JacobianPoint rowPoint = rowBase.toPoint();
+            multiple.set(rowPoint);
+            for (int j = 0; j < ENTRIES; j++) {
+                all[row * ENTRIES + j] = multiple.toPoint();
+                multiple.add(rowPoint);
+            }
+            for (int i = 0; i < WINDOW; i++) {
+                rowBase.twice();
+            }
+        }
+
+        JacobianPoint[] affine = curve.normalize(all);
+        JacobianPoint[][] rows = new JacobianPoint[rowCount][ENTRIES];
+        for (int row = 0; row < rowCount; row++) {
+            System.arraycopy(affine, row * ENTRIES, rows[row], 0, ENTRIES);
+        }
+        return rows;
+    }
+
+    private static int window(BigInteger scalar, int from) {
+        int digit = 0;
+        for (int bit = WINDOW - 1; bit >= 0; bit--) {
+            digit = (digit << 1) | (scalar.testBit(from + bit) ? 1 : 0);
+        }
+        return digit;
+    }
+}
@@ -0,0 +1,196 @@
+package com.popov.hw.math.ec;
+
+import com.popov.hw.math.modular.MontgomeryField;
+
+/**
+ * Mutable Jacobian point with its own scratch registers, so doubling and
+ * addition in a scalar multiplication loop update it in place without
+ * allocating. Not thread-safe: each multiplication uses its own accumulator.
+ */
+final class JacobianAccumulator {
+
+    private final MontgomeryField field;
+    private final long[] a;
+    private final long[] one;
+
+    private final long[] x;
+    private final long[] y;
+    private final long[] z;
+    private boolean infinity = true;
+
+    private final long[] t1;
+    private final long[] t2;
+    private final long[] t3;
+    private final long[] t4;
+    private final long[] t5;
+    private final long[] t6;
+
+    JacobianAccumulator(MontgomeryField field, long[] a) {
+        this.field = field;
+        this.a = a;
+        this.one = field.one();
+        this.x = field.newElement();
+        this.y = field.newElement();
+        this.z = field.newElement();
+        this.t1 = field.newElement();
+        this.t2 = field.newElement();
+        this.t3 = field.newElement();
+        this.t4 = field.newElement();
+        this.t5 = field.newElement();
+        this.t6 = field.newElement();
+    }
+
+    boolean isInfinity() {
+        return infinity;
+    }
+
+    void set(JacobianPoint point) {
+        infinity = point.isInfinity();
+        if (!infinity) {
+            field.copy(point.x(), x);
+            field.copy(point.y(), y);
+            field.copy(point.z(), z);
+        }
+    }
+
+    JacobianPoint toPoint() {
+        return infinity ? JacobianPoint.INFINITY : new JacobianPoint(x.clone(), y.clone(), z.clone());
+    }
+
+    void twice() {
+        if (infinity || field.isZero(y)) {
+            infinity = true;
+            return;
+        }
+        MontgomeryField f = field;
+
+        f.square(y, t1);                // yy
+        f.multiply(x, t1, t2);
+        f.add(t2, t2, t2);
+        f.add(t2, t2, t2);              // s = 4 x yy
+        f.square(z, t3);
+        f.square(t3, t4);
+        f.multiply(a, t4, t3);          // a z^4
+        f.square(x, t4);
+        f.add(t4, t4, t5);
+        f.add(t5, t4, t5);
+        f.add(t5, t3, t5);              // m = 3 x^2 + a z^4
+
+        f.multiply(y, z, t3);
+        f.add(t3, t3, z);               // z3 = 2 y z
+
+        f.square(t5, t3);
+        f.subtract(t3, t2, t3);
+        f.subtract(t3, t2, x);          // x3 = m^2 - 2 s
+
+        f.subtract(t2, x, t3);
+        f.multiply(t5, t3, t4);         // m (s - x3)
+        f.square(t1, t3);
+        f.add(t3, t3, t3);
+        f.add(t3, t3, t3);
+        f.add(t3, t3, t3);              // 8 yy^2
+        f.subtract(t4, t3, y);
+    }
+
+    /**
+     * Mixed addition of a point with {@code z = 1}, e.g. a table entry
+     * produced by {@link ECMath#normalize}, or of the point at infinity,
+     * which table entries are for points of small order.
+     */
+    void addAffine(JacobianPoint point) {
+        if (point.isInfinity()) {
+            return;
+        }
+        addAffine(point.x(), point.y());
+    }
+
+    private void addAffine(long[] x2, long[] y2) {
+        if (infinity) {
+            field.copy(x2, x);
+            field.copy(y2, y);
+            field.copy(one, z);
+            infinity = false;
+            return;
+        }
+        MontgomeryField f = field;
+
+        f.square(z, t1);                // z1z1
+        f.multiply(x2, t1, t2);         // u2
+        f.multiply(z, t1, t3);
+        f.multiply(y2, t3, t1);         // s2
+        f.subtract(t2, x, t2);          // h = u2 - x1
+        f.subtract(t1, y, t1);          // r = s2 - y1
+        combine(t2, t1);
+    }
+
+    /**
+     * General addition. {@code x, y, z} are first rescaled to
+     * {@code (x z2^2, y z2^3, z z2)}, which is the same point, so that the
+     * remaining steps are shared with {@link #addAffine}.
+     */
+    void add(JacobianPoint point) {
+        if (point.isInfinity()) {
+            return;
+        }
+        if (infinity) {
+            set(point);
+            return;
+        }
+        MontgomeryField f = field;
+        long[] x2 = point.x();
+        long[] y2 = point.y();
+        long[] z2 = point.z();
+
+        f.square(z2, t1);               // z2z2
+        f.multiply(x, t1, t3);
+        f.copy(t3, x);                  // u1
+        f.multiply(z2, t1, t3);
+        f.multiply(y, t3, t1);
+        f.copy(t1, y);                  // s1
+
+        f.square(z, t1);                // z1z1
+        f.multiply(x2, t1, t2);         // u2
+        f.multiply(z, t1, t3);
+        f.multiply(y2, t3, t1);         // s2
+
+        f.multiply(z, z2, t3);
+        f.copy(t3, z);                  // z1 z2
+        f.subtract(t2, x, t2);          // h
+        f.subtract(t1, y, t1);          // r
+        combine(t2, t1);
+    }
+
+    /**
+     * Finishes an addition from {@code h = u2 - u1} and {@code r = s2 - s1},
+     * with {@code u1, s1} in {@code x, y}; the new {@code z} is {@code z h}.
+     * Uses {@code t3 .. t6}.
+     */
+    private void combine(long[] h, long[] r) {
+        MontgomeryField f = field;
+        if (f.isZero(h)) {
+            if (f.isZero(r)) {
+                twice();
+            } else {
+                infinity = true;
+            }
+            return;
+        }
+
+        f.square(h, t3);                // hh
+        f.multiply(t3, h, t4);          // hhh
+        f.multiply(x, t3, t5);          // v = u1 hh
+
+        f.multiply(z, h, t3);
+        f.copy(t3, z);                  // z3
+
+        f.square(r, t3);
+        f.subtract(t3, t4, t3);
+        f.subtract(t3, t5, t3);
+        f.subtract(t3, t5, x);          // x3 = r^2 - hhh - 2 v
+
+        f.subtract(t5, x, t3);
+        f.multiply(r, t3, t6);          // r (v - x3)
+        f.multiply(y, t4, t3);          // s1 hhh
+        f.subtract(t6, t3, y);
+    }
+}
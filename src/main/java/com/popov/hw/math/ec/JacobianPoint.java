@@ -0,0 +1,21 @@
+package com.popov.hw.math.ec;
+
+/**
+ * Point in Jacobian coordinates, representing the affine point
+ * {@code (x / z^2, y / z^3)}. Coordinates are {@link ECMath} field elements
+ * in Montgomery form and must not be modified; {@code z = 0} is the point at
+ * infinity.
+ */
+public record JacobianPoint(long[] x, long[] y, long[] z) {
+
+    public static final JacobianPoint INFINITY = new JacobianPoint(new long[0], new long[0], new long[0]);
+
+    public boolean isInfinity() {
+        for (long limb : z) {
+            if (limb != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
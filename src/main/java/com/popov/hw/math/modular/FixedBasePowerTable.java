@@ -0,0 +1,159 @@
+package com.popov.hw.math.modular;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+
+/**
+ * Precomputed powers of a fixed base for a fixed-window method: row {@code i}
+ * holds {@code g^(j * 2^(w*i)) mod p} for {@code j = 1 .. 2^w - 1}, so
+ * {@code g^k} is a product of one entry per window of {@code k} and needs no
+ * squarings; products are reduced with {@link BarrettReducer}. The window
+ * is the widest that keeps the table within
+ * {@link #MAX_TABLE_BYTES}. Instances are immutable and can be shared between
+ * threads.
+ */
+public final class FixedBasePowerTable {
+
+    private static final int MIN_WINDOW = 2;
+    private static final int MAX_WINDOW = 6;
+    private static final long MAX_TABLE_BYTES = 8L * 1024 * 1024;
+
+    private final BigInteger base;
+    private final BigInteger modulus;
+    private final BarrettReducer reducer;
+    private final int maxBits;
+    private final int window;
+    private final BigInteger[][] rows;
+
+    public FixedBasePowerTable(BigInteger base, BigInteger modulus, int maxBits) {
+        this.base = base.mod(modulus);
+        this.modulus = modulus;
+        this.reducer = new BarrettReducer(modulus);
+        this.maxBits = maxBits;
+        this.window = chooseWindow(maxBits, modulus.bitLength());
+        this.rows = build(this.base, reducer, window, (maxBits + window - 1) / window);
+    }
+
+    private FixedBasePowerTable(BigInteger base, BigInteger modulus, int maxBits, int window, BigInteger[][] rows) {
+        this.base = base.mod(modulus);
+        this.modulus = modulus;
+        this.reducer = new BarrettReducer(modulus);
+        this.maxBits = maxBits;
+        this.window = window;
+        this.rows = rows;
+    }
+
+    /**
+     * Restores a table saved with {@link #toBytes()} without recomputing it.
+     *
+     * @throws IllegalArgumentException if the window or the number of bytes
+     *                                  left in {@code entries} does not fit
+     *                                  {@code modulus} and {@code maxBits},
+     *                                  or the first entry is not {@code base}
+     */
+    public static FixedBasePowerTable fromBytes(BigInteger base, BigInteger modulus, int maxBits, int window,
+                                                ByteBuffer entries) {
+        if (window < MIN_WINDOW || window > MAX_WINDOW) {
+            throw new IllegalArgumentException("Unsupported table window: " + window);
+        }
+        int width = entryWidth(modulus);
+        int rowCount = (maxBits + window - 1) / window;
+        int entryCount = (1 << window) - 1;
+        if (entries.remaining() != (long) rowCount * entryCount * width) {
+            throw new IllegalArgumentException("Power table does not match the modulus");
+        }
+
+        BigInteger[][] rows = new BigInteger[rowCount][entryCount];
+        byte[] entry = new byte[width];
+        for (BigInteger[] row : rows) {
+            for (int j = 0; j < entryCount; j++) {
+                entries.get(entry);
+                row[j] = new BigInteger(1, entry);
+            }
+        }
+        if (!rows[0][0].equals(base.mod(modulus))) {
+            throw new IllegalArgumentException("Power table was built for another base");
+        }
+        return new FixedBasePowerTable(base, modulus, maxBits, window, rows);
+    }
+
+    public int maxBits() {
+        return maxBits;
+    }
+
+    public int window() {
+        return window;
+    }
+
+    /**
+     * The entries row by row, each as an unsigned big-endian number of the
+     * modulus' byte length.
+     */
+    public byte[] toBytes() {
+        int width = entryWidth(modulus);
+        byte[] bytes = new byte[rows.length * rows[0].length * width];
+        int offset = 0;
+        for (BigInteger[] row : rows) {
+            for (BigInteger value : row) {
+                byte[] magnitude = value.toByteArray();
+                int length = Math.min(magnitude.length, width);
+                System.arraycopy(magnitude, magnitude.length - length, bytes, offset + width - length, length);
+                offset += width;
+            }
+        }
+        return bytes;
+    }
+
+    private static int entryWidth(BigInteger modulus) {
+        return (modulus.bitLength() + 7) / 8;
+    }
+
+    public BigInteger pow(BigInteger exponent) {
+        if (exponent.signum() < 0 || exponent.bitLength() > maxBits) {
+            return base.modPow(exponent, modulus);
+        }
+
+        BigInteger result = BigInteger.ONE;
+        for (int row = 0; row < rows.length; row++) {
+            int digit = digit(exponent, row * window);
+            if (digit != 0) {
+                result = reducer.multiply(result, rows[row][digit - 1]);
+            }
+        }
+        return result.mod(modulus);
+    }
+
+    private static int chooseWindow(int maxBits, int modulusBits) {
+        long entryBytes = modulusBits / 8 + 16;
+        for (int window = MAX_WINDOW; window > MIN_WINDOW; window--) {
+            long rows = (maxBits + window - 1) / window;
+            if (rows * ((1L << window) - 1) * entryBytes <= MAX_TABLE_BYTES) {
+                return window;
+            }
+        }
+        return MIN_WINDOW;
+    }
+
+    private static BigInteger[][] build(BigInteger base, BarrettReducer reducer, int window, int rowCount) {
+        int entries = (1 << window) - 1;
+        BigInteger[][] rows = new BigInteger[rowCount][entries];
+        BigInteger rowBase = base;
+
+        for (int row = 0; row < rowCount; row++) {
+            rows[row][0] = rowBase;
+            for (int j = 1; j < entries; j++) {
+                rows[row][j] = reducer.multiply(rows[row][j - 1], rowBase);
+            }
+            rowBase = reducer.multiply(rows[row][entries - 1], rowBase);
+        }
+        return rows;
+    }
+
+    private int digit(BigInteger exponent, int from) {
+        int digit = 0;
+        for (int bit = window - 1; bit >= 0; bit--) {
+            digit = (digit << 1) | (exponent.testBit(from + bit) ? 1 : 0);
+        }
+        return digit;
+    }
+}
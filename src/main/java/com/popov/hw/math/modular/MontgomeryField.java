@@ -0,0 +1,254 @@
+package com.popov.hw.math.modular;
+
+import java.math.BigInteger;
+
+/**
+ * Montgomery arithmetic modulo a fixed odd {@code m} on little-endian
+ * {@code long[]} limbs of 64 bits. Values are kept in Montgomery form
+ * {@code aR mod m} with {@code R = 2^(64 * size)}; the per-modulus constants
+ * ({@code -m^-1 mod 2^64}, {@code R mod m}, {@code R^2 mod m}) are computed
+ * once, and multiplication, squaring, addition and subtraction write into
+ * caller-supplied arrays without allocating. Instances are immutable and can
+ * be shared between threads; the arrays passed in must not be.
+ */
+public final class MontgomeryField {
+
+    private final BigInteger modulus;
+    private final long[] m;
+    private final int size;
+    private final long mInverse;
+    private final long[] one;
+    private final long[] rSquared;
+
+    /**
+     * @throws IllegalArgumentException if the modulus is not odd and greater than 1
+     */
+    public MontgomeryField(BigInteger modulus) {
+        if (modulus.compareTo(BigInteger.ONE) <= 0 || !modulus.testBit(0)) {
+            throw new IllegalArgumentException("Montgomery modulus must be odd and greater than 1");
+        }
+        this.modulus = modulus;
+        this.size = (modulus.bitLength() + 63) / 64;
+        this.m = toLimbs(modulus, size);
+        this.mInverse = negativeInverse(m[0]);
+
+        BigInteger r = BigInteger.ONE.shiftLeft(64 * size);
+        this.one = toLimbs(r.mod(modulus), size);
+        this.rSquared = toLimbs(r.multiply(r).mod(modulus), size);
+    }
+
+    public BigInteger modulus() {
+        return modulus;
+    }
+
+    /**
+     * Number of limbs of every value of this field.
+     */
+    public int size() {
+        return size;
+    }
+
+    public long[] newElement() {
+        return new long[size];
+    }
+
+    /**
+     * Returns {@code x mod m} in Montgomery form.
+     */
+    public long[] toMontgomery(BigInteger x) {
+        long[] result = newElement();
+        multiply(toLimbs(x.mod(modulus), size), rSquared, result);
+        return result;
+    }
+
+    public BigInteger fromMontgomery(long[] a) {
+        long[] unit = newElement();
+        unit[0] = 1;
+        long[] result = newElement();
+        multiply(a, unit, result);
+        return fromLimbs(result);
+    }
+
+    /**
+     * Montgomery form of 1.
+     */
+    public long[] one() {
+        return one.clone();
+    }
+
+    public boolean isZero(long[] a) {
+        for (long limb : a) {
+            if (limb != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void copy(long[] a, long[] out) {
+        System.arraycopy(a, 0, out, 0, size);
+    }
+
+    /**
+     * {@code out = a * b * R^-1 mod m} (CIOS). {@code out} must not be
+     * {@code a} or {@code b}.
+     */
+    public void multiply(long[] a, long[] b, long[] out) {
+        int n = size;
+        for (int j = 0; j < n; j++) {
+            out[j] = 0;
+        }
+        long top = 0;
+
+        for (int i = 0; i < n; i++) {
+            long bi = b[i];
+            long carry = 0;
+            for (int j = 0; j < n; j++) {
+                long lo = a[j] * bi;
+                long hi = unsignedMultiplyHigh(a[j], bi);
+                long sum = out[j] + lo;
+                hi += Long.compareUnsigned(sum, lo) < 0 ? 1 : 0;
+                sum += carry;
+                hi += Long.compareUnsigned(sum, carry) < 0 ? 1 : 0;
+                out[j] = sum;
+                carry = hi;
+            }
+            long topSum = top + carry;
+            long overflow = Long.compareUnsigned(topSum, carry) < 0 ? 1 : 0;
+
+            long q = out[0] * mInverse;
+            long lo = q * m[0];
+            long hi = unsignedMultiplyHigh(q, m[0]);
+            long sum = out[0] + lo;
+            carry = hi + (Long.compareUnsigned(sum, lo) < 0 ? 1 : 0);
+            for (int j = 1; j < n; j++) {
+                lo = q * m[j];
+                hi = unsignedMultiplyHigh(q, m[j]);
+                sum = out[j] + lo;
+                hi += Long.compareUnsigned(sum, lo) < 0 ? 1 : 0;
+                sum += carry;
+                hi += Long.compareUnsigned(sum, carry) < 0 ? 1 : 0;
+                out[j - 1] = sum;
+                carry = hi;
+            }
+            sum = topSum + carry;
+            out[n - 1] = sum;
+            top = overflow + (Long.compareUnsigned(sum, carry) < 0 ? 1 : 0);
+        }
+
+        if (top != 0 || compare(out, m) >= 0) {
+            subtractModulus(out);
+        }
+    }
+
+    /**
+     * {@code out = a^2 * R^-1 mod m}. {@code out} must not be {@code a}.
+     */
+    public void square(long[] a, long[] out) {
+        multiply(a, a, out);
+    }
+
+    /**
+     * {@code out = a + b mod m}; {@code out} may alias either operand.
+     */
+    public void add(long[] a, long[] b, long[] out) {
+        long carry = 0;
+        for (int j = 0; j < size; j++) {
+            long sum = a[j] + b[j];
+            long c1 = Long.compareUnsigned(sum, a[j]) < 0 ? 1 : 0;
+            long total = sum + carry;
+            long c2 = Long.compareUnsigned(total, sum) < 0 ? 1 : 0;
+            out[j] = total;
+            carry = c1 | c2;
+        }
+        if (carry != 0 || compare(out, m) >= 0) {
+            subtractModulus(out);
+        }
+    }
+
+    /**
+     * {@code out = a - b mod m}; {@code out} may alias either operand.
+     */
+    public void subtract(long[] a, long[] b, long[] out) {
+        long borrow = 0;
+        for (int j = 0; j < size; j++) {
+            long difference = a[j] - b[j];
+            long b1 = Long.compareUnsigned(a[j], b[j]) < 0 ? 1 : 0;
+            long total = difference - borrow;
+            long b2 = Long.compareUnsigned(difference, borrow) < 0 ? 1 : 0;
+            out[j] = total;
+            borrow = b1 | b2;
+        }
+        if (borrow != 0) {
+            long carry = 0;
+            for (int j = 0; j < size; j++) {
+                long sum = out[j] + m[j];
+                long c1 = Long.compareUnsigned(sum, m[j]) < 0 ? 1 : 0;
+                long total = sum + carry;
+                long c2 = Long.compareUnsigned(total, sum) < 0 ? 1 : 0;
+                out[j] = total;
+                carry = c1 | c2;
+            }
+        }
+    }
+
+    private int compare(long[] a, long[] b) {
+        for (int j = size - 1; j >= 0; j--) {
+            if (a[j] != b[j]) {
+                return Long.compareUnsigned(a[j], b[j]);
+            }
+        }
+        return 0;
+    }
+
+    private void subtractModulus(long[] a) {
+        long borrow = 0;
+        for (int j = 0; j < size; j++) {
+            long difference = a[j] - m[j];
+            long b1 = Long.compareUnsigned(a[j], m[j]) < 0 ? 1 : 0;
+            long total = difference - borrow;
+            long b2 = Long.compareUnsigned(difference, borrow) < 0 ? 1 : 0;
+            a[j] = total;
+            borrow = b1 | b2;
+        }
+    }
+
+    /**
+     * {@code Math.unsignedMultiplyHigh} is only available from Java 18.
+     */
+    private static long unsignedMultiplyHigh(long x, long y) {
+        return Math.multiplyHigh(x, y) + ((x >> 63) & y) + ((y >> 63) & x);
+    }
+
+    /**
+     * {@code -x^-1 mod 2^64} for odd {@code x}, by Newton iteration.
+     */
+    private static long negativeInverse(long x) {
+        long inverse = x;
+        for (int i = 0; i < 5; i++) {
+            inverse *= 2 - x * inverse;
+        }
+        return -inverse;
+    }
+
+    static long[] toLimbs(BigInteger x, int size) {
+        long[] limbs = new long[size];
+        for (int j = 0; j < size; j++) {
+            limbs[j] = x.shiftRight(64 * j).longValue();
+        }
+        return limbs;
+    }
+
+    static BigInteger fromLimbs(long[] limbs) {
+        byte[] bytes = new byte[limbs.length * 8 + 1];
+        for (int j = 0; j < limbs.length; j++) {
+            long limb = limbs[j];
+            int end = bytes.length - 8 * j;
+            for (int k = 1; k <= 8; k++) {
+                bytes[end - k] = (byte) limb;
+                limb >>>= 8;
+            }
+        }
+        return new BigInteger(bytes);
+    }
+}
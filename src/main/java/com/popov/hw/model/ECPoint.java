@@ -3,4 +3,13 @@ package com.popov.hw.model;
 import java.math.BigInteger;
 
 public record ECPoint(BigInteger x, BigInteger y) {
+
+    /**
+     * The point at infinity, the identity element of the curve group.
+     */
+    public static final ECPoint INFINITY = new ECPoint(null, null);
+
+    public boolean isInfinity() {
+        return x == null;
+    }
 }
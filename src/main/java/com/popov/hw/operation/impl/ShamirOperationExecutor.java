@@ -1,6 +1,5 @@
 package com.popov.hw.operation.impl;
 
-import com.popov.hw.enums.CipherOperation;
 import com.popov.hw.enums.CryptoAlgorithm;
 import com.popov.hw.exception.CryptoOperationException;
 import com.popov.hw.i18n.MessageService;
@@ -20,10 +19,10 @@ public class ShamirOperationExecutor implements OperationExecutor {
     @Override
     public void execute(WorkflowRequest request) {
         try {
-            if (request.operation() == CipherOperation.ENCRYPT) {
-                cryptoService.encrypt(request.inputFilePath(), request.outputFilePath(), request.parameters());
-            } else {
-                cryptoService.decrypt(request.inputFilePath(), request.outputFilePath(), request.parameters());
+            switch (request.operation()) {
+                case ENCRYPT -> cryptoService.encrypt(request.inputFilePath(), request.outputFilePath(), request.parameters());
+                case DECRYPT -> cryptoService.decrypt(request.inputFilePath(), request.outputFilePath(), request.parameters());
+                case EXCHANGE -> cryptoService.exchange(request.inputFilePath(), request.outputFilePath(), request.parameters());
             }
         } catch (Exception e) {
             throw new CryptoOperationException(
@@ -1,13 +1,21 @@
 package com.popov.hw.service;
 
+import com.popov.hw.service.crypto.context.KeyContextCache;
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
 import java.math.BigInteger;
 
 @Service
+@RequiredArgsConstructor
 public class ElGamalKeyCalculator {
 
+    private final KeyContextCache cache;
+
     public BigInteger calculatePublicKey(BigInteger g, BigInteger x, BigInteger p) {
-        return g.modPow(x, p);
+        return cache.get(BigInteger.class, new PublicKeyInput(g, x, p), () -> g.modPow(x, p));
+    }
+
+    private record PublicKeyInput(BigInteger g, BigInteger x, BigInteger p) {
     }
 }
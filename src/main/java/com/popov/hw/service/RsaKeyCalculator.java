@@ -1,18 +1,28 @@
 package com.popov.hw.service;
 
+import com.popov.hw.service.crypto.context.KeyContextCache;
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
 import java.math.BigInteger;
 
 @Service
+@RequiredArgsConstructor
 public class RsaKeyCalculator {
 
+    private final KeyContextCache cache;
+
     public BigInteger calculateModulus(BigInteger p, BigInteger q) {
         return p.multiply(q);
     }
 
     public BigInteger calculatePrivateKey(BigInteger e, BigInteger p, BigInteger q) {
-        BigInteger phi = p.subtract(BigInteger.ONE).multiply(q.subtract(BigInteger.ONE));
-        return e.modInverse(phi);
+        return cache.get(BigInteger.class, new PrivateKeyInput(e, p, q), () -> {
+            BigInteger phi = p.subtract(BigInteger.ONE).multiply(q.subtract(BigInteger.ONE));
+            return e.modInverse(phi);
+        });
+    }
+
+    private record PrivateKeyInput(BigInteger e, BigInteger p, BigInteger q) {
     }
 }
@@ -1,104 +1,91 @@
 package com.popov.hw.service.crypto;
 
 import com.popov.hw.model.ElGamalParameters;
+import com.popov.hw.service.crypto.container.KeyFingerprint;
+import com.popov.hw.service.crypto.context.ElGamalKeyContext;
+import com.popov.hw.service.crypto.context.KeyContextCache;
+import com.popov.hw.service.crypto.ephemeral.EphemeralPool;
+import com.popov.hw.service.crypto.ephemeral.EphemeralPrecomputer;
+import com.popov.hw.service.crypto.pipeline.BlockCipher;
+import com.popov.hw.service.crypto.pipeline.BlockCipherEngine;
+import com.popov.hw.service.crypto.random.NonceStream;
+import com.popov.hw.service.crypto.random.NonceSupply;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
-import java.io.DataInputStream;
-import java.io.DataOutputStream;
 import java.math.BigInteger;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.security.SecureRandom;
+
+import static com.popov.hw.enums.CryptoAlgorithm.EL_GAMAL;
 
 @Slf4j
 @Service
+@RequiredArgsConstructor
 public class ElGamalCryptoService implements CryptoService {
 
-    private final SecureRandom random = new SecureRandom();
+    private final BlockCipherEngine engine;
+    private final NonceSupply nonceSupply;
+    private final EphemeralPrecomputer precomputer;
+    private final KeyContextCache cache;
 
     @Override
     public void encrypt(String inputPath, String outputPath, Object parameters) throws Exception {
         ElGamalParameters params = (ElGamalParameters) parameters;
-        encryptFile(inputPath, outputPath, params.p(), params.g(), params.publicKey());
+        ElGamalKeyContext context = contextFor(params);
+        EphemeralPool<ElGamalKeyContext.Ephemeral> pool = ephemeralsFor(params, context);
+
+        BlockCipher cipher = cipherBuilder(params)
+                .encryptor(message -> context.encrypt(message, pool.take()))
+                .build();
+
+        engine.encrypt(cipher, inputPath, outputPath);
+        log.info("ElGamal encryption completed, ephemeral pool {}", pool.metrics());
     }
 
     @Override
     public void decrypt(String inputPath, String outputPath, Object parameters) throws Exception {
         ElGamalParameters params = (ElGamalParameters) parameters;
-        decryptFile(inputPath, outputPath, params.p(), params.x());
-    }
-
-    private void encryptFile(String inputPath, String outputPath, BigInteger p, BigInteger g, BigInteger publicKey) throws Exception {
-        byte[] data = Files.readAllBytes(Path.of(inputPath));
-        int blockSize = (p.bitLength() - 1) / 8;
-
-        try (DataOutputStream dos = new DataOutputStream(Files.newOutputStream(Path.of(outputPath)))) {
-            for (int i = 0; i < data.length; i += blockSize) {
-                int length = Math.min(blockSize, data.length - i);
-                byte[] block = new byte[length];
-                System.arraycopy(data, i, block, 0, length);
-
-                BigInteger message = new BigInteger(1, block);
-                BigInteger k = generateSessionKey(p);
-                BigInteger a = g.modPow(k, p);
-                BigInteger b = publicKey.modPow(k, p).multiply(message).mod(p);
-
-                writeEncryptedPair(dos, a, b);
-            }
-        }
-        log.info("ElGamal encryption completed");
-    }
-
-    private void decryptFile(String inputPath, String outputPath, BigInteger p, BigInteger privateKey) throws Exception {
-        try (DataInputStream dis = new DataInputStream(Files.newInputStream(Path.of(inputPath)));
-             DataOutputStream dos = new DataOutputStream(Files.newOutputStream(Path.of(outputPath)))) {
-
-            while (dis.available() > 0) {
-                BigInteger a = readBigInteger(dis);
-                BigInteger b = readBigInteger(dis);
+        ElGamalKeyContext context = contextFor(params);
 
-                BigInteger aToX = a.modPow(privateKey, p);
-                BigInteger aToXInverse = aToX.modInverse(p);
-                BigInteger message = b.multiply(aToXInverse).mod(p);
+        BlockCipher cipher = cipherBuilder(params)
+                .decryptor(pair -> context.decrypt(pair[0], pair[1]))
+                .build();
 
-                dos.write(removeLeadingZero(message.toByteArray()));
-            }
-        }
+        engine.decrypt(cipher, inputPath, outputPath);
         log.info("ElGamal decryption completed");
     }
 
-    private BigInteger generateSessionKey(BigInteger p) {
-        BigInteger pMinusTwo = p.subtract(BigInteger.TWO);
-        BigInteger k;
-        do {
-            k = new BigInteger(p.bitLength(), random);
-        } while (k.compareTo(BigInteger.ONE) <= 0 || k.compareTo(pMinusTwo) > 0);
-        return k;
+    private BlockCipher.BlockCipherBuilder cipherBuilder(ElGamalParameters params) {
+        return BlockCipher.builder()
+                .algorithm(EL_GAMAL)
+                .modulus(params.p())
+                .elementsPerBlock(2)
+                .keyFingerprint(KeyFingerprint.of(params.p(), params.g(), params.publicKey()));
     }
 
-    private void writeEncryptedPair(DataOutputStream dos, BigInteger a, BigInteger b) throws Exception {
-        byte[] aBytes = a.toByteArray();
-        byte[] bBytes = b.toByteArray();
-        dos.writeInt(aBytes.length);
-        dos.write(aBytes);
-        dos.writeInt(bBytes.length);
-        dos.write(bBytes);
+    /**
+     * Power tables are expensive to build, so contexts are cached per key.
+     */
+    private ElGamalKeyContext contextFor(ElGamalParameters params) {
+        return cache.get(ElGamalKeyContext.class, params, () -> ElGamalKeyContext.from(params));
     }
 
-    private BigInteger readBigInteger(DataInputStream dis) throws Exception {
-        int length = dis.readInt();
-        byte[] bytes = new byte[length];
-        dis.readFully(bytes);
-        return new BigInteger(bytes);
+    /**
+     * Precomputed {@code (g^k, y^k)} pairs per key; the pool keeps filling
+     * between files.
+     */
+    @SuppressWarnings("unchecked")
+    private EphemeralPool<ElGamalKeyContext.Ephemeral> ephemeralsFor(ElGamalParameters params, ElGamalKeyContext context) {
+        return cache.get(EphemeralPool.class, params, () -> {
+            NonceStream sessionKeys = sessionKeys(params.p());
+            return precomputer.pool(() -> context.ephemeral(sessionKeys.next()));
+        });
     }
 
-    private byte[] removeLeadingZero(byte[] data) {
-        if (data[0] == 0 && data.length > 1) {
-            byte[] result = new byte[data.length - 1];
-            System.arraycopy(data, 1, result, 0, result.length);
-            return result;
-        }
-        return data;
+    /**
+     * Session keys {@code k} in {@code [2, p - 2]}.
+     */
+    private NonceStream sessionKeys(BigInteger p) {
+        return nonceSupply.stream(BigInteger.TWO, p.subtract(BigInteger.ONE));
     }
 }
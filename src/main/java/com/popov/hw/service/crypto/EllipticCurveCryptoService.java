@@ -1,181 +1,193 @@
 package com.popov.hw.service.crypto;
 
+import com.popov.hw.exception.CryptoOperationException;
+import com.popov.hw.math.ec.ECMath;
 import com.popov.hw.model.ECCurve;
 import com.popov.hw.model.ECPoint;
 import com.popov.hw.model.EllipticCurveParameters;
+import com.popov.hw.service.crypto.container.KeyFingerprint;
+import com.popov.hw.service.crypto.context.EllipticCurveKeyContext;
+import com.popov.hw.service.crypto.context.KeyContextCache;
+import com.popov.hw.service.crypto.ephemeral.EphemeralPool;
+import com.popov.hw.service.crypto.ephemeral.EphemeralPrecomputer;
+import com.popov.hw.service.crypto.pipeline.BlockCipher;
+import com.popov.hw.service.crypto.pipeline.BlockCipherEngine;
+import com.popov.hw.service.crypto.pipeline.CiphertextFrameReader;
+import com.popov.hw.service.crypto.pipeline.FrameCodec;
+import com.popov.hw.service.crypto.random.NonceStream;
+import com.popov.hw.service.crypto.random.NonceSupply;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
-import java.io.DataInputStream;
 import java.io.DataOutputStream;
+import java.io.IOException;
 import java.math.BigInteger;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.security.SecureRandom;
+
+import static com.popov.hw.enums.CryptoAlgorithm.ELLIPTIC_CURVE;
 
 @Slf4j
 @Service
+@RequiredArgsConstructor
 public class EllipticCurveCryptoService implements CryptoService {
 
-    private final SecureRandom random = new SecureRandom();
+    private final BlockCipherEngine engine;
+    private final NonceSupply nonceSupply;
+    private final EphemeralPrecomputer precomputer;
+    private final KeyContextCache cache;
 
     @Override
     public void encrypt(String inputPath, String outputPath, Object parameters) throws Exception {
         EllipticCurveParameters params = (EllipticCurveParameters) parameters;
-        encryptFile(inputPath, outputPath, params.curve(), params.publicKey());
+        EllipticCurveKeyContext context = contextFor(params);
+        EphemeralPool<EllipticCurveKeyContext.Ephemeral> pool = ephemeralsFor(params, context);
+
+        BlockCipher cipher = cipherBuilder(params)
+                .encryptor(message -> toElements(encryptBlock(message, context, pool.take())))
+                .build();
+
+        engine.encrypt(cipher, inputPath, outputPath);
+        log.info("Elliptic Curve encryption completed, ephemeral pool {}", pool.metrics());
     }
 
     @Override
     public void decrypt(String inputPath, String outputPath, Object parameters) throws Exception {
         EllipticCurveParameters params = (EllipticCurveParameters) parameters;
-        decryptFile(inputPath, outputPath, params.curve(), params.privateKey());
-    }
-
-    private void encryptFile(String inputPath, String outputPath, ECCurve curve, ECPoint publicKey) throws Exception {
-        byte[] data = Files.readAllBytes(Path.of(inputPath));
-        int blockSize = (curve.p().bitLength() - 1) / 8;
-
-        try (DataOutputStream dos = new DataOutputStream(Files.newOutputStream(Path.of(outputPath)))) {
-            for (int i = 0; i < data.length; i += blockSize) {
-                int length = Math.min(blockSize, data.length - i);
-                byte[] block = new byte[length];
-                System.arraycopy(data, i, block, 0, length);
+        BigInteger privateKey = params.privateKey();
+        ECMath arithmetic = cache.get(ECMath.class, params.curve(), () -> new ECMath(params.curve()));
 
-                BigInteger messageValue = new BigInteger(1, block);
-                ECPoint messagePoint = new ECPoint(messageValue, BigInteger.ZERO);
+        BlockCipher cipher = cipherBuilder(params)
+                .decryptor(elements -> decryptBlock(toPoints(elements), arithmetic, privateKey).x())
+                .build();
 
-                BigInteger k = generateRandomScalar(curve.p());
-                ECPoint c1 = multiplyPoint(curve.basePoint(), k, curve);
-                ECPoint kPublicKey = multiplyPoint(publicKey, k, curve);
-                ECPoint c2 = addPoints(messagePoint, kPublicKey, curve);
-
-                writePoint(dos, c1);
-                writePoint(dos, c2);
-            }
-        }
-        log.info("Elliptic Curve encryption completed");
+        engine.decrypt(cipher, inputPath, outputPath);
+        log.info("Elliptic Curve decryption completed");
     }
 
-    private void decryptFile(String inputPath, String outputPath, ECCurve curve, BigInteger privateKey) throws Exception {
-        try (DataInputStream dis = new DataInputStream(Files.newInputStream(Path.of(inputPath)));
-             DataOutputStream dos = new DataOutputStream(Files.newOutputStream(Path.of(outputPath)))) {
-
-            while (dis.available() > 0) {
-                ECPoint c1 = readPoint(dis);
-                ECPoint c2 = readPoint(dis);
-
-                ECPoint privC1 = multiplyPoint(c1, privateKey, curve);
-                ECPoint negPrivC1 = new ECPoint(privC1.x(), curve.p().subtract(privC1.y()).mod(curve.p()));
-                ECPoint messagePoint = addPoints(c2, negPrivC1, curve);
+    private BlockCipher.BlockCipherBuilder cipherBuilder(EllipticCurveParameters params) {
+        ECCurve curve = params.curve();
+        ECPoint publicKey = params.publicKey();
+        return BlockCipher.builder()
+                .algorithm(ELLIPTIC_CURVE)
+                .modulus(curve.p())
+                .elementsPerBlock(4)
+                .keyFingerprint(KeyFingerprint.of(
+                        curve.a(), curve.b(), curve.p(),
+                        curve.basePoint().x(), curve.basePoint().y(),
+                        publicKey.x(), publicKey.y()))
+                .legacyCodec(new PointFrameCodec());
+    }
 
-                byte[] result = messagePoint.x().toByteArray();
-                dos.write(removeLeadingZero(result));
-            }
-        }
-        log.info("Elliptic Curve decryption completed");
+    /**
+     * Fixed-base tables are expensive to build, so contexts are cached per
+     * curve and public key.
+     */
+    private EllipticCurveKeyContext contextFor(EllipticCurveParameters params) {
+        return cache.get(EllipticCurveKeyContext.class, EllipticCurveKeyContext.cacheKey(params.curve(), params.publicKey()),
+                () -> EllipticCurveKeyContext.of(params.curve(), params.publicKey()));
     }
 
-    private ECPoint addPoints(ECPoint p1, ECPoint p2, ECCurve curve) {
-        if (p1 == null) return p2;
-        if (p2 == null) return p1;
+    private ECPoint[] encryptBlock(BigInteger messageValue, EllipticCurveKeyContext context,
+                                   EllipticCurveKeyContext.Ephemeral ephemeral) {
+        ECPoint messagePoint = new ECPoint(messageValue, BigInteger.ZERO);
+        ECPoint c2 = context.arithmetic().add(messagePoint, ephemeral.shared());
+        return new ECPoint[]{ephemeral.c1(), c2};
+    }
 
-        if (p1.x().equals(p2.x())) {
-            if (p1.y().equals(p2.y())) {
-                return doublePoint(p1, curve);
-            } else {
-                return null;
-            }
+    private ECPoint decryptBlock(ECPoint[] points, ECMath arithmetic, BigInteger privateKey) {
+        if (!arithmetic.isOnCurve(points[0])) {
+            throw new CryptoOperationException("Ciphertext point is not on the curve");
         }
-
-        BigInteger numerator = p2.y().subtract(p1.y()).mod(curve.p());
-        BigInteger denominator = p2.x().subtract(p1.x()).mod(curve.p());
-        BigInteger lambda = numerator.multiply(denominator.modInverse(curve.p())).mod(curve.p());
-
-        BigInteger x3 = lambda.pow(2).subtract(p1.x()).subtract(p2.x()).mod(curve.p());
-        BigInteger y3 = lambda.multiply(p1.x().subtract(x3)).subtract(p1.y()).mod(curve.p());
-
-        return new ECPoint(x3, y3);
+        ECPoint privC1 = arithmetic.multiply(points[0], privateKey);
+        ECPoint messagePoint = arithmetic.add(points[1], arithmetic.negate(privC1));
+        if (messagePoint.isInfinity()) {
+            throw new CryptoOperationException("Ciphertext decrypts to the point at infinity");
+        }
+        return messagePoint;
     }
 
-    private ECPoint doublePoint(ECPoint p, ECCurve curve) {
-        if (p == null) return null;
-
-        BigInteger numerator = p.x().pow(2).multiply(BigInteger.valueOf(3)).add(curve.a()).mod(curve.p());
-        BigInteger denominator = p.y().multiply(BigInteger.TWO).mod(curve.p());
-        BigInteger lambda = numerator.multiply(denominator.modInverse(curve.p())).mod(curve.p());
-
-        BigInteger x3 = lambda.pow(2).subtract(p.x().multiply(BigInteger.TWO)).mod(curve.p());
-        BigInteger y3 = lambda.multiply(p.x().subtract(x3)).subtract(p.y()).mod(curve.p());
+    /**
+     * Precomputed {@code (k*G, k*Q)} pairs per curve and public key; the pool
+     * keeps filling between files.
+     */
+    @SuppressWarnings("unchecked")
+    private EphemeralPool<EllipticCurveKeyContext.Ephemeral> ephemeralsFor(EllipticCurveParameters params,
+                                                                           EllipticCurveKeyContext context) {
+        return cache.get(EphemeralPool.class, EllipticCurveKeyContext.cacheKey(params.curve(), params.publicKey()), () -> {
+            NonceStream scalars = randomScalars(params.curve().p());
+            return precomputer.pool(() -> context.ephemeral(scalars.next()));
+        });
+    }
 
-        return new ECPoint(x3, y3);
+    /**
+     * Scalars {@code k} in {@code [2, 2^(bitLength(p) - 1))}.
+     */
+    private NonceStream randomScalars(BigInteger p) {
+        return nonceSupply.stream(BigInteger.TWO, BigInteger.ONE.shiftLeft(p.bitLength() - 1));
     }
 
-    private ECPoint multiplyPoint(ECPoint point, BigInteger scalar, ECCurve curve) {
-        if (scalar.equals(BigInteger.ZERO) || point == null) {
-            return null;
+    private BigInteger[] toElements(ECPoint[] points) {
+        BigInteger[] elements = new BigInteger[points.length * 2];
+        for (int i = 0; i < points.length; i++) {
+            elements[2 * i] = points[i].x();
+            elements[2 * i + 1] = points[i].y();
         }
+        return elements;
+    }
 
-        ECPoint result = null;
-        ECPoint addend = point;
-
-        while (scalar.compareTo(BigInteger.ZERO) > 0) {
-            if (scalar.testBit(0)) {
-                result = addPoints(result, addend, curve);
-            }
-            addend = doublePoint(addend, curve);
-            scalar = scalar.shiftRight(1);
+    private ECPoint[] toPoints(BigInteger[] elements) {
+        ECPoint[] points = new ECPoint[elements.length / 2];
+        for (int i = 0; i < points.length; i++) {
+            BigInteger x = elements[2 * i];
+            points[i] = x == null ? ECPoint.INFINITY : new ECPoint(x, elements[2 * i + 1]);
         }
-
-        return result;
+        return points;
     }
 
-    private BigInteger generateRandomScalar(BigInteger p) {
-        BigInteger k;
-        do {
-            k = new BigInteger(p.bitLength() - 1, random);
-        } while (k.compareTo(BigInteger.ONE) <= 0);
-        return k;
-    }
+    /**
+     * Legacy layout: per point a null flag followed by length-prefixed x and y.
+     */
+    private final class PointFrameCodec implements FrameCodec {
 
-    private void writePoint(DataOutputStream dos, ECPoint point) throws Exception {
-        if (point == null) {
-            dos.writeBoolean(true);
-        } else {
-            dos.writeBoolean(false);
-            byte[] xBytes = point.x().toByteArray();
-            byte[] yBytes = point.y().toByteArray();
-            dos.writeInt(xBytes.length);
-            dos.write(xBytes);
-            dos.writeInt(yBytes.length);
-            dos.write(yBytes);
+        @Override
+        public void write(DataOutputStream dos, BigInteger[] elements) throws IOException {
+            for (ECPoint point : toPoints(elements)) {
+                writePoint(dos, point);
+            }
         }
-    }
 
-    private ECPoint readPoint(DataInputStream dis) throws Exception {
-        boolean isNull = dis.readBoolean();
-        if (isNull) {
-            return null;
+        @Override
+        public BigInteger[] read(CiphertextFrameReader reader) throws IOException {
+            if (!reader.hasMore()) {
+                return null;
+            }
+            return toElements(new ECPoint[]{readPoint(reader), readPoint(reader)});
         }
 
-        int xLength = dis.readInt();
-        byte[] xBytes = new byte[xLength];
-        dis.readFully(xBytes);
-        BigInteger x = new BigInteger(xBytes);
+        private void writePoint(DataOutputStream dos, ECPoint point) throws IOException {
+            if (point.isInfinity()) {
+                dos.writeBoolean(true);
+            } else {
+                dos.writeBoolean(false);
+                byte[] xBytes = point.x().toByteArray();
+                byte[] yBytes = point.y().toByteArray();
+                dos.writeInt(xBytes.length);
+                dos.write(xBytes);
+                dos.writeInt(yBytes.length);
+                dos.write(yBytes);
+            }
+        }
 
-        int yLength = dis.readInt();
-        byte[] yBytes = new byte[yLength];
-        dis.readFully(yBytes);
-        BigInteger y = new BigInteger(yBytes);
+        private ECPoint readPoint(CiphertextFrameReader reader) throws IOException {
+            boolean isNull = reader.readBoolean();
+            if (isNull) {
+                return ECPoint.INFINITY;
+            }
 
-        return new ECPoint(x, y);
-    }
+            BigInteger x = reader.readBigInteger();
+            BigInteger y = reader.readBigInteger();
 
-    private byte[] removeLeadingZero(byte[] data) {
-        if (data[0] == 0 && data.length > 1) {
-            byte[] result = new byte[data.length - 1];
-            System.arraycopy(data, 1, result, 0, result.length);
-            return result;
+            return new ECPoint(x, y);
         }
-        return data;
     }
 }
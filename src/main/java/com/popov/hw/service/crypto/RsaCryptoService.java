@@ -1,74 +1,58 @@
 package com.popov.hw.service.crypto;
 
 import com.popov.hw.model.RsaParameters;
+import com.popov.hw.service.crypto.container.KeyFingerprint;
+import com.popov.hw.service.crypto.context.KeyContextCache;
+import com.popov.hw.service.crypto.context.RsaKeyContext;
+import com.popov.hw.service.crypto.pipeline.BlockCipher;
+import com.popov.hw.service.crypto.pipeline.BlockCipherEngine;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
-import java.io.DataInputStream;
-import java.io.DataOutputStream;
 import java.math.BigInteger;
-import java.nio.file.Files;
-import java.nio.file.Path;
+
+import static com.popov.hw.enums.CryptoAlgorithm.RSA;
 
 @Slf4j
 @Service
+@RequiredArgsConstructor
 public class RsaCryptoService implements CryptoService {
 
+    private final BlockCipherEngine engine;
+    private final KeyContextCache cache;
+
     @Override
     public void encrypt(String inputPath, String outputPath, Object parameters) throws Exception {
         RsaParameters params = (RsaParameters) parameters;
-        encryptFile(inputPath, outputPath, params.e(), params.n());
+        BigInteger e = params.e();
+        BigInteger n = params.n();
+
+        BlockCipher cipher = cipherBuilder(params)
+                .encryptor(message -> new BigInteger[]{message.modPow(e, n)})
+                .build();
+
+        engine.encrypt(cipher, inputPath, outputPath);
+        log.info("RSA encryption completed");
     }
 
     @Override
     public void decrypt(String inputPath, String outputPath, Object parameters) throws Exception {
         RsaParameters params = (RsaParameters) parameters;
-        decryptFile(inputPath, outputPath, params.d(), params.n());
-    }
-
-    private void encryptFile(String inputPath, String outputPath, BigInteger e, BigInteger n) throws Exception {
-        byte[] data = Files.readAllBytes(Path.of(inputPath));
-        int blockSize = (n.bitLength() - 1) / 8;
+        RsaKeyContext keyContext = cache.get(RsaKeyContext.class, params, () -> RsaKeyContext.from(params));
 
-        try (DataOutputStream dos = new DataOutputStream(Files.newOutputStream(Path.of(outputPath)))) {
-            for (int i = 0; i < data.length; i += blockSize) {
-                int length = Math.min(blockSize, data.length - i);
-                byte[] block = new byte[length];
-                System.arraycopy(data, i, block, 0, length);
+        BlockCipher cipher = cipherBuilder(params)
+                .decryptor(encrypted -> keyContext.decrypt(encrypted[0]))
+                .build();
 
-                BigInteger message = new BigInteger(1, block);
-                BigInteger encrypted = message.modPow(e, n);
-                byte[] encryptedBytes = encrypted.toByteArray();
-
-                dos.writeInt(encryptedBytes.length);
-                dos.write(encryptedBytes);
-            }
-        }
-        log.info("RSA encryption completed");
+        engine.decrypt(cipher, inputPath, outputPath);
+        log.info("RSA decryption completed (CRT: {})", keyContext.isCrtEnabled());
     }
 
-    private void decryptFile(String inputPath, String outputPath, BigInteger d, BigInteger n) throws Exception {
-        try (DataInputStream dis = new DataInputStream(Files.newInputStream(Path.of(inputPath)));
-             DataOutputStream dos = new DataOutputStream(Files.newOutputStream(Path.of(outputPath)))) {
-
-            while (dis.available() > 0) {
-                int length = dis.readInt();
-                byte[] encryptedBytes = new byte[length];
-                dis.readFully(encryptedBytes);
-
-                BigInteger encrypted = new BigInteger(encryptedBytes);
-                BigInteger decrypted = encrypted.modPow(d, n);
-                byte[] result = decrypted.toByteArray();
-
-                if (result[0] == 0 && result.length > 1) {
-                    byte[] temp = new byte[result.length - 1];
-                    System.arraycopy(result, 1, temp, 0, temp.length);
-                    result = temp;
-                }
-
-                dos.write(result);
-            }
-        }
-        log.info("RSA decryption completed");
+    private BlockCipher.BlockCipherBuilder cipherBuilder(RsaParameters params) {
+        return BlockCipher.builder()
+                .algorithm(RSA)
+                .modulus(params.n())
+                .keyFingerprint(KeyFingerprint.of(params.n(), params.e()));
     }
 }
@@ -1,74 +1,87 @@
 package com.popov.hw.service.crypto;
 
 import com.popov.hw.model.ShamirParameters;
+import com.popov.hw.service.crypto.container.KeyFingerprint;
+import com.popov.hw.service.crypto.context.KeyContextCache;
+import com.popov.hw.service.crypto.context.ShamirKeyContext;
+import com.popov.hw.service.crypto.pipeline.BlockCipher;
+import com.popov.hw.service.crypto.pipeline.BlockCipherEngine;
+import com.popov.hw.service.crypto.threepass.PassStatistics;
+import com.popov.hw.service.crypto.threepass.ThreePassExchange;
+import com.popov.hw.service.crypto.threepass.ThreePassReport;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
-import java.io.DataInputStream;
-import java.io.DataOutputStream;
+import java.io.IOException;
 import java.math.BigInteger;
-import java.nio.file.Files;
-import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.popov.hw.enums.CryptoAlgorithm.SHAMIR;
 
 @Slf4j
 @Service
+@RequiredArgsConstructor
 public class ShamirCryptoService implements CryptoService {
 
+    private final BlockCipherEngine engine;
+    private final ThreePassExchange threePassExchange;
+    private final KeyContextCache cache;
+
     @Override
     public void encrypt(String inputPath, String outputPath, Object parameters) throws Exception {
         ShamirParameters params = (ShamirParameters) parameters;
-        encryptFile(inputPath, outputPath, params.p(), params.keyPair()[0]);
+        BigInteger p = params.p();
+        BigInteger cA = params.keyPair()[0];
+
+        BlockCipher cipher = cipherBuilder(params)
+                .encryptor(message -> new BigInteger[]{message.modPow(cA, p)})
+                .build();
+
+        engine.encrypt(cipher, inputPath, outputPath);
+        log.info("Shamir encryption completed");
     }
 
     @Override
     public void decrypt(String inputPath, String outputPath, Object parameters) throws Exception {
         ShamirParameters params = (ShamirParameters) parameters;
-        decryptFile(inputPath, outputPath, params.p(), params.keyPair()[0]);
-    }
+        BigInteger p = params.p();
+        BigInteger dA = params.keyPair()[0];
 
-    private void encryptFile(String inputPath, String outputPath, BigInteger p, BigInteger cA) throws Exception {
-        byte[] data = Files.readAllBytes(Path.of(inputPath));
-        int blockSize = (p.bitLength() - 1) / 8;
+        BlockCipher cipher = cipherBuilder(params)
+                .decryptor(encrypted -> encrypted[0].modPow(dA, p))
+                .build();
 
-        try (DataOutputStream dos = new DataOutputStream(Files.newOutputStream(Path.of(outputPath)))) {
-            for (int i = 0; i < data.length; i += blockSize) {
-                int length = Math.min(blockSize, data.length - i);
-                byte[] block = new byte[length];
-                System.arraycopy(data, i, block, 0, length);
+        engine.decrypt(cipher, inputPath, outputPath);
+        log.info("Shamir decryption completed");
+    }
 
-                BigInteger message = new BigInteger(1, block);
-                BigInteger x1 = message.modPow(cA, p);
+    /**
+     * Runs the complete three-pass exchange with both key pairs from
+     * {@code parameters} ({@code Ca} and {@code Cb}) and writes the plaintext
+     * that B recovers to {@code outputPath}.
+     */
+    public ThreePassReport exchange(String inputPath, String outputPath, Object parameters) throws IOException {
+        ShamirParameters params = (ShamirParameters) parameters;
+        ShamirKeyContext keys = cache.get(ShamirKeyContext.class,
+                List.of(params.p(), Arrays.asList(params.keyPair())),
+                () -> ShamirKeyContext.from(params));
+        ThreePassReport report = threePassExchange.run(keys, inputPath, outputPath);
 
-                byte[] x1Bytes = x1.toByteArray();
-                dos.writeInt(x1Bytes.length);
-                dos.write(x1Bytes);
-            }
+        log.info("Shamir three-pass exchange completed: {} blocks in {} ms ({} MB/s)",
+                report.blocks(), report.elapsedMillis(), String.format("%.2f", report.megabytesPerSecond()));
+        for (PassStatistics pass : report.passes()) {
+            log.info("  pass {}: avg {} us, max {} us",
+                    pass.name(), String.format("%.1f", pass.averageMicros()), String.format("%.1f", pass.maxMicros()));
         }
-        log.info("Shamir encryption completed");
+        return report;
     }
 
-    private void decryptFile(String inputPath, String outputPath, BigInteger p, BigInteger dA) throws Exception {
-        try (DataInputStream dis = new DataInputStream(Files.newInputStream(Path.of(inputPath)));
-             DataOutputStream dos = new DataOutputStream(Files.newOutputStream(Path.of(outputPath)))) {
-
-            while (dis.available() > 0) {
-                int length = dis.readInt();
-                byte[] encryptedBytes = new byte[length];
-                dis.readFully(encryptedBytes);
-                BigInteger encrypted = new BigInteger(encryptedBytes);
-
-                BigInteger message = encrypted.modPow(dA, p);
-                byte[] result = message.toByteArray();
-
-                if (result[0] == 0 && result.length > 1) {
-                    byte[] temp = new byte[result.length - 1];
-                    System.arraycopy(result, 1, temp, 0, temp.length);
-                    result = temp;
-                }
-
-                dos.write(result);
-            }
-        }
-        log.info("Shamir decryption completed");
+    private BlockCipher.BlockCipherBuilder cipherBuilder(ShamirParameters params) {
+        return BlockCipher.builder()
+                .algorithm(SHAMIR)
+                .modulus(params.p())
+                .keyFingerprint(KeyFingerprint.of(params.p()));
     }
 }
@@ -0,0 +1,101 @@
+package com.popov.hw.service.crypto.container;
+
+import com.popov.hw.enums.CryptoAlgorithm;
+import com.popov.hw.exception.FileOperationException;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Header of the versioned ciphertext container:
+ * <pre>
+ * magic "KAIC" | version u8 | algorithm u8 | flags u16 | key fingerprint 8B |
+ * plain block size u32 | element width u32 | elements per block u32 | original length u64
+ * </pre>
+ * followed by {@link #blockCount()} blocks of {@link #frameSize()} bytes each.
+ * The flags describe how plaintext blocks are encoded before encryption.
+ */
+public record ContainerHeader(
+        CryptoAlgorithm algorithm,
+        int flags,
+        byte[] keyFingerprint,
+        int plainBlockSize,
+        int elementWidth,
+        int elementsPerBlock,
+        long originalLength
+) {
+
+    public static final int SIZE = 36;
+    public static final byte VERSION = 1;
+
+    /**
+     * Rabin blocks carry a redundancy tag that identifies the right square root.
+     */
+    public static final int FLAG_RABIN_REDUNDANCY = 0x0001;
+
+    private static final byte[] MAGIC = {'K', 'A', 'I', 'C'};
+
+    public static boolean hasMagic(byte[] prefix) {
+        return prefix.length >= MAGIC.length && Arrays.equals(prefix, 0, MAGIC.length, MAGIC, 0, MAGIC.length);
+    }
+
+    public static int magicLength() {
+        return MAGIC.length;
+    }
+
+    public int frameSize() {
+        return elementWidth * elementsPerBlock;
+    }
+
+    public long blockCount() {
+        return (originalLength + plainBlockSize - 1) / plainBlockSize;
+    }
+
+    public long blockOffset(long index) {
+        return SIZE + index * frameSize();
+    }
+
+    public long containerSize() {
+        return blockOffset(blockCount());
+    }
+
+    public ByteBuffer toByteBuffer() {
+        ByteBuffer buffer = ByteBuffer.allocate(SIZE);
+        buffer.put(MAGIC)
+                .put(VERSION)
+                .put((byte) algorithm.getNumber())
+                .putShort((short) flags)
+                .put(keyFingerprint)
+                .putInt(plainBlockSize)
+                .putInt(elementWidth)
+                .putInt(elementsPerBlock)
+                .putLong(originalLength);
+        return buffer.flip();
+    }
+
+    public static ContainerHeader read(ByteBuffer buffer) {
+        byte[] magic = new byte[MAGIC.length];
+        buffer.get(magic);
+        if (!hasMagic(magic)) {
+            throw new FileOperationException("Not a ciphertext container");
+        }
+
+        byte version = buffer.get();
+        if (version != VERSION) {
+            throw new FileOperationException("Unsupported container version: " + version);
+        }
+
+        CryptoAlgorithm algorithm = CryptoAlgorithm.fromNumber(buffer.get());
+        int flags = Short.toUnsignedInt(buffer.getShort());
+        byte[] fingerprint = new byte[KeyFingerprint.LENGTH];
+        buffer.get(fingerprint);
+
+        ContainerHeader header = new ContainerHeader(
+                algorithm, flags, fingerprint, buffer.getInt(), buffer.getInt(), buffer.getInt(), buffer.getLong());
+        if (header.plainBlockSize() <= 0 || header.elementWidth() <= 0
+                || header.elementsPerBlock() <= 0 || header.originalLength() < 0) {
+            throw new FileOperationException("Corrupted container header");
+        }
+        return header;
+    }
+}
@@ -0,0 +1,72 @@
+package com.popov.hw.service.crypto.container;
+
+import com.popov.hw.exception.CryptoOperationException;
+import lombok.experimental.UtilityClass;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+
+/**
+ * Big-endian, zero-padded encoding of non-negative values into a fixed number
+ * of bytes. A {@code null} value (e.g. the point at infinity) is stored as all
+ * {@code 0xFF} bytes, which can never be a residue of a modulus that fits into
+ * the same width. Values below {@code 2^63} are written straight from their
+ * {@code long} value; larger ones need the one copy made by
+ * {@link BigInteger#toByteArray()}.
+ */
+@UtilityClass
+public class FixedWidthCodec {
+
+    private static final byte ABSENT = (byte) 0xFF;
+
+    public static void encode(BigInteger value, byte[] target, int offset, int width) {
+        if (value == null) {
+            Arrays.fill(target, offset, offset + width, ABSENT);
+            return;
+        }
+        if (value.signum() >= 0 && value.bitLength() < Long.SIZE) {
+            encode(value.longValue(), value.bitLength(), target, offset, width);
+            return;
+        }
+
+        byte[] bytes = value.toByteArray();
+        int start = bytes.length > 1 && bytes[0] == 0 ? 1 : 0;
+        int length = bytes.length - start;
+        if (value.signum() < 0 || length > width) {
+            throw new CryptoOperationException("Value does not fit into " + width + " bytes");
+        }
+
+        int padding = width - length;
+        Arrays.fill(target, offset, offset + padding, (byte) 0);
+        System.arraycopy(bytes, start, target, offset + padding, length);
+    }
+
+    private static void encode(long value, int bitLength, byte[] target, int offset, int width) {
+        int length = (bitLength + 7) / 8;
+        if (length > width) {
+            throw new CryptoOperationException("Value does not fit into " + width + " bytes");
+        }
+        int end = offset + width;
+        Arrays.fill(target, offset, end - length, (byte) 0);
+        for (int i = end - 1; i >= end - length; i--) {
+            target[i] = (byte) value;
+            value >>>= 8;
+        }
+    }
+
+    public static BigInteger decode(byte[] source, int offset, int width) {
+        if (isAbsent(source, offset, width)) {
+            return null;
+        }
+        return new BigInteger(1, source, offset, width);
+    }
+
+    private static boolean isAbsent(byte[] source, int offset, int width) {
+        for (int i = offset; i < offset + width; i++) {
+            if (source[i] != ABSENT) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
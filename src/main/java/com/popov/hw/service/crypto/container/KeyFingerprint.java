@@ -0,0 +1,34 @@
+package com.popov.hw.service.crypto.container;
+
+import lombok.experimental.UtilityClass;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+@UtilityClass
+public class KeyFingerprint {
+
+    public static final int LENGTH = 8;
+
+    /**
+     * Truncated SHA-256 over the length-prefixed public key components. Only
+     * values known to both the encrypting and the decrypting side may be
+     * passed in.
+     */
+    public static byte[] of(BigInteger... components) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (BigInteger component : components) {
+                byte[] bytes = component.toByteArray();
+                digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(bytes.length).array());
+                digest.update(bytes);
+            }
+            return Arrays.copyOf(digest.digest(), LENGTH);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
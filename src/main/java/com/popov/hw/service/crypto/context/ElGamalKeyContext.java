@@ -0,0 +1,143 @@
+package com.popov.hw.service.crypto.context;
+
+import com.popov.hw.math.modular.BarrettReducer;
+import com.popov.hw.math.modular.FixedBasePowerTable;
+import com.popov.hw.model.ElGamalParameters;
+
+import java.math.BigInteger;
+
+/**
+ * Per-key ElGamal state. Encryption uses fixed-base power tables for the
+ * generator and the public key, so {@code g^k} and {@code y^k} of every block
+ * are table products instead of full exponentiations; the tables are built on
+ * first use, so a decrypt-only context never pays for them. Decryption uses
+ * {@code a^(p-1-x)}, which equals {@code (a^x)^-1} by Fermat's little
+ * theorem, so each block costs one exponentiation and no inversion. Only a
+ * private key much shorter than {@code p} keeps {@code a^x} plus an
+ * inversion, because there the short exponent is cheaper.
+ */
+public final class ElGamalKeyContext {
+
+    private static final int SHORT_KEY_MARGIN_BITS = 64;
+
+    private final BigInteger p;
+    private final BigInteger g;
+    private final BigInteger publicKey;
+    private final BigInteger decryptionExponent;
+    private final boolean invertAfterPow;
+    private final BarrettReducer reducer;
+
+    private volatile EncryptionTables tables;
+
+    private ElGamalKeyContext(BigInteger p, BigInteger g, BigInteger publicKey, BigInteger x) {
+        this.p = p;
+        this.g = g;
+        this.publicKey = publicKey;
+        BigInteger order = p.subtract(BigInteger.ONE);
+        BigInteger reducedX = x == null ? null : x.mod(order);
+        BigInteger complement = x == null ? null : order.subtract(reducedX);
+        this.invertAfterPow = x != null && reducedX.bitLength() < complement.bitLength() - SHORT_KEY_MARGIN_BITS;
+        this.decryptionExponent = invertAfterPow ? reducedX : complement;
+        this.reducer = new BarrettReducer(p);
+    }
+
+    public static ElGamalKeyContext from(ElGamalParameters params) {
+        return new ElGamalKeyContext(params.p(), params.g(), params.publicKey(), params.x());
+    }
+
+    /**
+     * A context whose encryption tables are already built, e.g. restored
+     * from a key store.
+     *
+     * @throws IllegalArgumentException if a table does not cover exponents
+     *                                  up to the size of {@code p}
+     */
+    public static ElGamalKeyContext withTables(ElGamalParameters params, FixedBasePowerTable generator,
+                                               FixedBasePowerTable publicKey) {
+        int maxBits = params.p().bitLength();
+        if (generator.maxBits() != maxBits || publicKey.maxBits() != maxBits) {
+            throw new IllegalArgumentException("Power tables do not match p");
+        }
+        ElGamalKeyContext context = from(params);
+        context.tables = new EncryptionTables(generator, publicKey);
+        return context;
+    }
+
+    public BigInteger p() {
+        return p;
+    }
+
+    /**
+     * Encrypts {@code message} with the session key {@code k}, returning
+     * {@code (g^k, y^k * m) mod p}.
+     */
+    public BigInteger[] encrypt(BigInteger message, BigInteger k) {
+        return encrypt(message, ephemeral(k));
+    }
+
+    /**
+     * Encrypts {@code message} with a precomputed ephemeral pair, which costs
+     * a single modular multiplication.
+     */
+    public BigInteger[] encrypt(BigInteger message, Ephemeral ephemeral) {
+        return new BigInteger[]{ephemeral.a(), reducer.multiply(ephemeral.mask(), message.mod(p))};
+    }
+
+    /**
+     * The message-independent part of an encryption with session key
+     * {@code k}: {@code g^k} and {@code y^k mod p}.
+     */
+    public Ephemeral ephemeral(BigInteger k) {
+        EncryptionTables powers = tables();
+        return new Ephemeral(powers.generator().pow(k), powers.publicKey().pow(k));
+    }
+
+    /**
+     * Decrypts the pair {@code (a, b)} as {@code b * a^(p-1-x) mod p}.
+     */
+    public BigInteger decrypt(BigInteger a, BigInteger b) {
+        if (decryptionExponent == null) {
+            throw new IllegalStateException("ElGamal private key is not available");
+        }
+        BigInteger mask = a.modPow(decryptionExponent, p);
+        if (invertAfterPow) {
+            mask = mask.modInverse(p);
+        }
+        return reducer.multiply(mask, b.mod(p));
+    }
+
+    public FixedBasePowerTable generatorTable() {
+        return tables().generator();
+    }
+
+    public FixedBasePowerTable publicKeyTable() {
+        return tables().publicKey();
+    }
+
+    private EncryptionTables tables() {
+        EncryptionTables local = tables;
+        if (local == null) {
+            synchronized (this) {
+                local = tables;
+                if (local == null) {
+                    int maxBits = p.bitLength();
+                    local = new EncryptionTables(
+                            new FixedBasePowerTable(g, p, maxBits),
+                            new FixedBasePowerTable(publicKey, p, maxBits));
+                    tables = local;
+                }
+            }
+        }
+        return local;
+    }
+
+    /**
+     * {@code a = g^k} and {@code mask = y^k} for one session key; must not be
+     * used for more than one block.
+     */
+    public record Ephemeral(BigInteger a, BigInteger mask) {
+    }
+
+    private record EncryptionTables(FixedBasePowerTable generator, FixedBasePowerTable publicKey) {
+    }
+}
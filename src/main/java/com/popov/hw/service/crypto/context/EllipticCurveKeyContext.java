@@ -0,0 +1,107 @@
+package com.popov.hw.service.crypto.context;
+
+import com.popov.hw.math.ec.FixedBaseTable;
+import com.popov.hw.math.ec.ECMath;
+import com.popov.hw.model.ECCurve;
+import com.popov.hw.model.ECPoint;
+
+import java.math.BigInteger;
+import java.util.List;
+
+/**
+ * Per-key elliptic curve state: the curve arithmetic plus fixed-base tables
+ * for the base point and the public key, so the two scalar multiplications of
+ * every encrypted block are table lookups and additions only.
+ */
+public final class EllipticCurveKeyContext {
+
+    private final ECCurve curve;
+    private final ECMath arithmetic;
+    private final FixedBaseTable baseTable;
+    private final FixedBaseTable publicKeyTable;
+
+    private EllipticCurveKeyContext(ECCurve curve, ECPoint publicKey) {
+        this.curve = curve;
+        this.arithmetic = new ECMath(curve);
+        int maxBits = curve.p().bitLength();
+        this.baseTable = new FixedBaseTable(arithmetic, arithmetic.requireOnCurve(curve.basePoint(), "Base point"), maxBits);
+        this.publicKeyTable = new FixedBaseTable(arithmetic, arithmetic.requireOnCurve(publicKey, "Public key"), maxBits);
+    }
+
+    private EllipticCurveKeyContext(ECCurve curve, ECMath arithmetic, FixedBaseTable baseTable,
+                                    FixedBaseTable publicKeyTable) {
+        this.curve = curve;
+        this.arithmetic = arithmetic;
+        this.baseTable = baseTable;
+        this.publicKeyTable = publicKeyTable;
+    }
+
+    /**
+     * The {@link KeyContextCache} key of the context for a curve and public
+     * key; the private key does not affect it.
+     */
+    public static Object cacheKey(ECCurve curve, ECPoint publicKey) {
+        return List.of(curve, publicKey);
+    }
+
+    public static EllipticCurveKeyContext of(ECCurve curve, ECPoint publicKey) {
+        return new EllipticCurveKeyContext(curve, publicKey);
+    }
+
+    /**
+     * A context from tables that are already built, e.g. restored from a key
+     * store, over {@code arithmetic} for {@code curve}.
+     *
+     * @throws IllegalArgumentException if a table belongs to another point
+     *                                  or does not cover scalars up to the
+     *                                  size of {@code p}
+     */
+    public static EllipticCurveKeyContext withTables(ECCurve curve, ECPoint publicKey, ECMath arithmetic,
+                                                     FixedBaseTable baseTable, FixedBaseTable publicKeyTable) {
+        int maxBits = curve.p().bitLength();
+        if (!baseTable.base().equals(curve.basePoint()) || !publicKeyTable.base().equals(publicKey)
+                || baseTable.maxBits() != maxBits || publicKeyTable.maxBits() != maxBits) {
+            throw new IllegalArgumentException("Fixed-base tables do not match the key");
+        }
+        return new EllipticCurveKeyContext(curve, arithmetic, baseTable, publicKeyTable);
+    }
+
+    public ECCurve curve() {
+        return curve;
+    }
+
+    public ECMath arithmetic() {
+        return arithmetic;
+    }
+
+    public FixedBaseTable baseTable() {
+        return baseTable;
+    }
+
+    public FixedBaseTable publicKeyTable() {
+        return publicKeyTable;
+    }
+
+    public ECPoint multiplyBase(BigInteger scalar) {
+        return baseTable.multiply(scalar);
+    }
+
+    public ECPoint multiplyPublicKey(BigInteger scalar) {
+        return publicKeyTable.multiply(scalar);
+    }
+
+    /**
+     * The message-independent part of an encryption with scalar {@code k}:
+     * {@code k*G} and {@code k*Q}.
+     */
+    public Ephemeral ephemeral(BigInteger k) {
+        return new Ephemeral(multiplyBase(k), multiplyPublicKey(k));
+    }
+
+    /**
+     * {@code c1 = k*G} and {@code shared = k*Q} for one scalar; must not be
+     * used for more than one block.
+     */
+    public record Ephemeral(ECPoint c1, ECPoint shared) {
+    }
+}
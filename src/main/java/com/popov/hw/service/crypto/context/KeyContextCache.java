@@ -0,0 +1,112 @@
+package com.popov.hw.service.crypto.context;
+
+import com.popov.hw.config.CryptoProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Process-wide LRU cache of everything derived from a key: CRT values,
+ * Montgomery and Barrett constants, fixed-base tables, precomputation pools
+ * and calculated key components. Entries are keyed by the type of the
+ * cached value plus the parameters it was derived from (usually the
+ * {@code *Parameters} record itself, compared by value), so repeated jobs
+ * with the same key skip setup entirely. At most {@code crypto.key-cache-size}
+ * entries are kept.
+ * <p>
+ * A value is built outside the map lock, once per slot: concurrent callers
+ * for the same key wait for the first one, callers for other keys do not.
+ */
+@Slf4j
+@Component
+public class KeyContextCache {
+
+    private final int maxSize;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final Map<CacheKey, Slot> entries;
+
+    public KeyContextCache(CryptoProperties properties) {
+        this.maxSize = properties.keyCacheSize();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<CacheKey, Slot> eldest) {
+                if (size() <= maxSize) {
+                    return false;
+                }
+                evictions.increment();
+                return true;
+            }
+        };
+    }
+
+    /**
+     * The cached value of {@code type} for {@code parameters}, built by
+     * {@code factory} on a miss. {@code parameters} must implement
+     * value-based {@code equals}/{@code hashCode}. A factory that throws
+     * leaves nothing cached.
+     */
+    public <T> T get(Class<T> type, Object parameters, Supplier<? extends T> factory) {
+        CacheKey key = new CacheKey(type, parameters);
+        Slot slot;
+        synchronized (entries) {
+            slot = entries.get(key);
+            if (slot == null) {
+                slot = new Slot();
+                entries.put(key, slot);
+                misses.increment();
+                log.debug("Key context cache miss for {}", type.getSimpleName());
+            } else {
+                hits.increment();
+            }
+        }
+        try {
+            return type.cast(slot.value(factory));
+        } catch (RuntimeException e) {
+            synchronized (entries) {
+                entries.remove(key, slot);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Caches a value built elsewhere, e.g. restored from a key store,
+     * replacing any value cached for the same type and parameters.
+     */
+    public <T> void put(Class<T> type, Object parameters, T value) {
+        Slot slot = new Slot();
+        slot.value = value;
+        synchronized (entries) {
+            entries.put(new CacheKey(type, parameters), slot);
+        }
+    }
+
+    public KeyContextCacheMetrics metrics() {
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        return new KeyContextCacheMetrics(size, maxSize, hits.sum(), misses.sum(), evictions.sum());
+    }
+
+    private record CacheKey(Class<?> type, Object parameters) {
+    }
+
+    private static final class Slot {
+
+        private Object value;
+
+        private synchronized Object value(Supplier<?> factory) {
+            if (value == null) {
+                value = factory.get();
+            }
+            return value;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.popov.hw.service.crypto.context;
+
+/**
+ * Snapshot of the {@link KeyContextCache} counters.
+ */
+public record KeyContextCacheMetrics(int size, int maxSize, long hits, long misses, long evictions) {
+
+    public double hitRatio() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+}
@@ -0,0 +1,101 @@
+package com.popov.hw.service.crypto.context;
+
+import com.popov.hw.exception.CryptoOperationException;
+import com.popov.hw.model.RabinParameters;
+
+import java.math.BigInteger;
+
+/**
+ * Per-key Rabin decryption state. The square-root exponents
+ * {@code (p+1)/4}, {@code (q+1)/4} and the CRT coefficients are computed once,
+ * so each block costs two half-size exponentiations and the recombination.
+ * Instances are immutable and safe to share between worker threads.
+ */
+public final class RabinKeyContext {
+
+    private static final BigInteger THREE = BigInteger.valueOf(3);
+    private static final BigInteger FOUR = BigInteger.valueOf(4);
+
+    private final BigInteger n;
+    private final BigInteger p;
+    private final BigInteger q;
+    private final BigInteger rootExponentP;
+    private final BigInteger rootExponentQ;
+    private final BigInteger coefficientP;
+    private final BigInteger coefficientQ;
+
+    private RabinKeyContext(BigInteger p, BigInteger q) {
+        this.p = p;
+        this.q = q;
+        this.n = p.multiply(q);
+        this.rootExponentP = p.add(BigInteger.ONE).shiftRight(2);
+        this.rootExponentQ = q.add(BigInteger.ONE).shiftRight(2);
+        this.coefficientP = q.multiply(q.modInverse(p)).mod(n);
+        this.coefficientQ = p.multiply(p.modInverse(q)).mod(n);
+    }
+
+    /**
+     * @throws IllegalArgumentException if p or q is not {@code 3 (mod 4)} or
+     *                                  they are equal
+     */
+    public static RabinKeyContext from(RabinParameters params) {
+        BigInteger p = params.p();
+        BigInteger q = params.q();
+        if (!p.mod(FOUR).equals(THREE) || !q.mod(FOUR).equals(THREE)) {
+            throw new IllegalArgumentException("p and q must be ≡ 3 (mod 4)");
+        }
+        if (p.equals(q)) {
+            throw new IllegalArgumentException("p and q must be distinct");
+        }
+        return new RabinKeyContext(p, q);
+    }
+
+    public BigInteger n() {
+        return n;
+    }
+
+    /**
+     * Returns the four square roots of {@code c} modulo n.
+     */
+    public BigInteger[] roots(BigInteger c) {
+        BigInteger mp = c.mod(p).modPow(rootExponentP, p);
+        BigInteger mq = c.mod(q).modPow(rootExponentQ, q);
+
+        BigInteger termP = coefficientP.multiply(mp);
+        BigInteger termQ = coefficientQ.multiply(mq);
+        BigInteger r1 = termP.add(termQ).mod(n);
+        BigInteger r2 = termP.subtract(termQ).mod(n);
+
+        return new BigInteger[]{r1, n.subtract(r1).mod(n), r2, n.subtract(r2).mod(n)};
+    }
+
+    /**
+     * Decrypts {@code c} to its smallest square root, which is the plaintext
+     * whenever that is the smallest of the four roots.
+     */
+    public BigInteger decrypt(BigInteger c) {
+        BigInteger smallest = null;
+        for (BigInteger root : roots(c)) {
+            if (smallest == null || root.compareTo(smallest) < 0) {
+                smallest = root;
+            }
+        }
+        return smallest;
+    }
+
+    /**
+     * Decrypts a block encoded with {@link RabinRedundancy#tag}: returns the
+     * untagged root that carries the tag.
+     *
+     * @throws CryptoOperationException if no root carries it, i.e. the block
+     *                                  is corrupted or was encoded differently
+     */
+    public BigInteger decryptTagged(BigInteger c) {
+        for (BigInteger root : roots(c)) {
+            if (RabinRedundancy.isTagged(root)) {
+                return RabinRedundancy.untag(root);
+            }
+        }
+        throw new CryptoOperationException("No square root carries the redundancy tag");
+    }
+}
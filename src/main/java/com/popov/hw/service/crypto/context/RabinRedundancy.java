@@ -0,0 +1,33 @@
+package com.popov.hw.service.crypto.context;
+
+import lombok.experimental.UtilityClass;
+
+import java.math.BigInteger;
+
+/**
+ * Redundancy encoding for Rabin blocks: the low 64 bits of the message are
+ * appended to it, {@code m -> m * 2^64 + (m mod 2^64)}. Of the four square
+ * roots of a ciphertext only the plaintext repeats its trailing bits (the
+ * others do so with probability {@code 2^-64}), so the right root is found by
+ * a single comparison per root.
+ */
+@UtilityClass
+public class RabinRedundancy {
+
+    public static final int TAG_BITS = Long.SIZE;
+    public static final int TAG_BYTES = TAG_BITS / 8;
+
+    private static final BigInteger TAG_MASK = BigInteger.ONE.shiftLeft(TAG_BITS).subtract(BigInteger.ONE);
+
+    public static BigInteger tag(BigInteger message) {
+        return message.shiftLeft(TAG_BITS).or(message.and(TAG_MASK));
+    }
+
+    public static boolean isTagged(BigInteger value) {
+        return value.longValue() == value.shiftRight(TAG_BITS).longValue();
+    }
+
+    public static BigInteger untag(BigInteger value) {
+        return value.shiftRight(TAG_BITS);
+    }
+}
@@ -0,0 +1,132 @@
+package com.popov.hw.service.crypto.context;
+
+import com.popov.hw.model.RsaParameters;
+
+import java.math.BigInteger;
+
+/**
+ * Per-key RSA decryption state. When the primes are known, dP, dQ and qInv are
+ * computed once and every block is decrypted with two half-size exponentiations
+ * recombined through the Chinese Remainder Theorem; otherwise the plain
+ * {@code c^d mod n} path is used.
+ */
+public final class RsaKeyContext {
+
+    private final BigInteger n;
+    private final BigInteger d;
+    private final BigInteger p;
+    private final BigInteger q;
+    private final BigInteger dP;
+    private final BigInteger dQ;
+    private final BigInteger qInv;
+
+    private RsaKeyContext(BigInteger n, BigInteger d, BigInteger p, BigInteger q) {
+        this.n = n;
+        this.d = d;
+        this.p = p;
+        this.q = q;
+        this.dP = p == null ? null : d.mod(p.subtract(BigInteger.ONE));
+        this.dQ = q == null ? null : d.mod(q.subtract(BigInteger.ONE));
+        this.qInv = q == null ? null : q.modInverse(p);
+    }
+
+    private RsaKeyContext(RsaParameters params, CrtParts crt) {
+        this.n = params.n();
+        this.d = params.d();
+        this.p = params.p();
+        this.q = params.q();
+        this.dP = crt.dP();
+        this.dQ = crt.dQ();
+        this.qInv = crt.qInv();
+    }
+
+    public static RsaKeyContext from(RsaParameters params) {
+        if (!canUseCrt(params)) {
+            return new RsaKeyContext(params.n(), params.d(), null, null);
+        }
+
+        RsaKeyContext crt = new RsaKeyContext(params.n(), params.d(), params.p(), params.q());
+        if (!crt.matchesPlainPath()) {
+            return new RsaKeyContext(params.n(), params.d(), null, null);
+        }
+        return crt;
+    }
+
+    /**
+     * Restores a context whose CRT parts were taken from {@link #crtParts()}
+     * of a context for the same key. Instead of the probe against the plain
+     * path, the parts are checked against the key with three cheap
+     * reductions: {@code dP = d mod (p - 1)}, {@code dQ = d mod (q - 1)} and
+     * {@code qInv q = 1 (mod p)}. {@code crt == null} restores the plain path.
+     *
+     * @throws IllegalArgumentException if the parts do not belong to the key
+     */
+    public static RsaKeyContext restore(RsaParameters params, CrtParts crt) {
+        if (crt == null) {
+            return new RsaKeyContext(params.n(), params.d(), null, null);
+        }
+        if (!canUseCrt(params) || !crt.matches(params)) {
+            throw new IllegalArgumentException("CRT parts do not match the RSA key");
+        }
+        return new RsaKeyContext(params, crt);
+    }
+
+    /**
+     * The verified CRT parts, or {@code null} if the plain path is used.
+     */
+    public CrtParts crtParts() {
+        return isCrtEnabled() ? new CrtParts(dP, dQ, qInv) : null;
+    }
+
+    public boolean isCrtEnabled() {
+        return p != null;
+    }
+
+    public BigInteger decrypt(BigInteger c) {
+        return isCrtEnabled() ? decryptCrt(c) : decryptPlain(c);
+    }
+
+    private BigInteger decryptPlain(BigInteger c) {
+        return c.modPow(d, n);
+    }
+
+    private BigInteger decryptCrt(BigInteger c) {
+        BigInteger m1 = c.modPow(dP, p);
+        BigInteger m2 = c.modPow(dQ, q);
+        BigInteger h = qInv.multiply(m1.subtract(m2)).mod(p);
+        return m2.add(h.multiply(q));
+    }
+
+    private static boolean canUseCrt(RsaParameters params) {
+        BigInteger p = params.p();
+        BigInteger q = params.q();
+        return p != null && q != null
+                && !p.equals(q)
+                && p.multiply(q).equals(params.n())
+                && p.gcd(q).equals(BigInteger.ONE);
+    }
+
+    /**
+     * For distinct primes p and q with {@code pq = n} both paths agree on
+     * every input (see {@code RsaKeyContextTest}); a composite "prime" is the
+     * remaining way to get wrong plaintext, and a single probe catches that in
+     * practice, so such key material falls back to {@code c^d mod n}.
+     */
+    private boolean matchesPlainPath() {
+        BigInteger probe = BigInteger.TWO.mod(n);
+        return decryptCrt(probe).equals(decryptPlain(probe));
+    }
+
+    public record CrtParts(BigInteger dP, BigInteger dQ, BigInteger qInv) {
+
+        private boolean matches(RsaParameters params) {
+            BigInteger p = params.p();
+            BigInteger q = params.q();
+            BigInteger d = params.d();
+            return dP != null && dQ != null && qInv != null
+                    && dP.equals(d.mod(p.subtract(BigInteger.ONE)))
+                    && dQ.equals(d.mod(q.subtract(BigInteger.ONE)))
+                    && qInv.multiply(q).mod(p).equals(BigInteger.ONE);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.popov.hw.service.crypto.context;
+
+import com.popov.hw.model.ShamirParameters;
+
+import java.math.BigInteger;
+
+/**
+ * Both parties' exponents for a Shamir three-pass exchange over {@code p}:
+ * the encryption keys {@code cA, cB} and their inverses
+ * {@code dA, dB} modulo {@code p - 1}, computed once per key pair. Instances
+ * are immutable and safe to share between stage threads.
+ */
+public final class ShamirKeyContext {
+
+    private final BigInteger p;
+    private final BigInteger cA;
+    private final BigInteger cB;
+    private final BigInteger dA;
+    private final BigInteger dB;
+
+    private ShamirKeyContext(BigInteger p, BigInteger cA, BigInteger cB) {
+        BigInteger order = p.subtract(BigInteger.ONE);
+        this.p = p;
+        this.cA = cA;
+        this.cB = cB;
+        this.dA = inverse(cA, order, "Ca");
+        this.dB = inverse(cB, order, "Cb");
+    }
+
+    /**
+     * @throws IllegalArgumentException if {@code p <= 2}, a key is missing or
+     *                                  a key is not coprime to {@code p - 1}
+     */
+    public static ShamirKeyContext from(ShamirParameters params) {
+        BigInteger[] keys = params.keyPair();
+        if (params.p().compareTo(BigInteger.TWO) <= 0) {
+            throw new IllegalArgumentException("p must be a prime greater than 2");
+        }
+        if (keys == null || keys.length < 2) {
+            throw new IllegalArgumentException("Both Ca and Cb are required for the three-pass exchange");
+        }
+        return new ShamirKeyContext(params.p(), keys[0], keys[1]);
+    }
+
+    public BigInteger p() {
+        return p;
+    }
+
+    /**
+     * Pass 1, by A: {@code m^cA}.
+     */
+    public BigInteger lockA(BigInteger value) {
+        return value.modPow(cA, p);
+    }
+
+    /**
+     * Pass 2, by B: {@code x^cB}.
+     */
+    public BigInteger lockB(BigInteger value) {
+        return value.modPow(cB, p);
+    }
+
+    /**
+     * Pass 3, by A: {@code x^dA}.
+     */
+    public BigInteger unlockA(BigInteger value) {
+        return value.modPow(dA, p);
+    }
+
+    /**
+     * Final step, by B: {@code x^dB}, which recovers the message.
+     */
+    public BigInteger unlockB(BigInteger value) {
+        return value.modPow(dB, p);
+    }
+
+    private static BigInteger inverse(BigInteger key, BigInteger order, String name) {
+        try {
+            return key.modInverse(order);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException(name + " must be coprime to p - 1", e);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.popov.hw.service.crypto.ephemeral;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Ephemeral values of one key, computed ahead of the messages they will
+ * encrypt. A background thread keeps the bounded queue topped up; a
+ * {@link #take()} that finds it empty is a miss and computes the value on
+ * the calling thread. Every value is handed out at most once.
+ */
+public final class EphemeralPool<T> {
+
+    private final Supplier<T> generator;
+    private final BlockingQueue<T> ready;
+    private final int capacity;
+    private final Executor precomputer;
+    private final AtomicBoolean refilling = new AtomicBoolean();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    EphemeralPool(Supplier<T> generator, int capacity, Executor precomputer) {
+        this.generator = generator;
+        this.ready = new ArrayBlockingQueue<>(capacity);
+        this.capacity = capacity;
+        this.precomputer = precomputer;
+        scheduleRefill();
+    }
+
+    public T take() {
+        T value = ready.poll();
+        if (value != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+            value = generator.get();
+        }
+        scheduleRefill();
+        return value;
+    }
+
+    public EphemeralPoolMetrics metrics() {
+        return new EphemeralPoolMetrics(ready.size(), capacity, hits.sum(), misses.sum());
+    }
+
+    private void scheduleRefill() {
+        if (!refilling.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            precomputer.execute(this::refill);
+        } catch (RejectedExecutionException e) {
+            refilling.set(false);
+        }
+    }
+
+    private void refill() {
+        try {
+            while (ready.remainingCapacity() > 0 && !Thread.currentThread().isInterrupted()) {
+                if (!ready.offer(generator.get())) {
+                    return;
+                }
+            }
+        } finally {
+            refilling.set(false);
+        }
+    }
+}
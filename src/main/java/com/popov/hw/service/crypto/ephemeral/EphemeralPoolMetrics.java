@@ -0,0 +1,13 @@
+package com.popov.hw.service.crypto.ephemeral;
+
+/**
+ * Snapshot of an {@link EphemeralPool}: values ready now, and how many takes
+ * were served from the pool or had to compute a value themselves.
+ */
+public record EphemeralPoolMetrics(int depth, int capacity, long hits, long misses) {
+
+    public double hitRatio() {
+        long takes = hits + misses;
+        return takes == 0 ? 0 : (double) hits / takes;
+    }
+}
@@ -0,0 +1,47 @@
+package com.popov.hw.service.crypto.ephemeral;
+
+import com.popov.hw.config.CryptoProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Creates {@link EphemeralPool}s of {@code crypto.ephemeral-pool-capacity}
+ * values and fills all of them on one low-priority background thread, so the
+ * precomputation mostly runs while encryption is idle.
+ */
+@Component
+public class EphemeralPrecomputer implements AutoCloseable {
+
+    private final ExecutorService executor;
+    private final int capacity;
+
+    public EphemeralPrecomputer(CryptoProperties properties) {
+        this.capacity = properties.ephemeralPoolCapacity();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(1, 1, 30, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), task -> {
+                    Thread thread = new Thread(task, "ephemeral-precompute");
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                });
+        pool.allowCoreThreadTimeOut(true);
+        this.executor = pool;
+    }
+
+    /**
+     * A new pool that starts filling right away.
+     */
+    public <T> EphemeralPool<T> pool(Supplier<T> generator) {
+        return new EphemeralPool<>(generator, capacity, executor);
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
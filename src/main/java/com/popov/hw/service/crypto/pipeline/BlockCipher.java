@@ -0,0 +1,82 @@
+package com.popov.hw.service.crypto.pipeline;
+
+import com.popov.hw.enums.CryptoAlgorithm;
+import com.popov.hw.exception.CryptoOperationException;
+import com.popov.hw.service.crypto.container.FixedWidthCodec;
+import lombok.Builder;
+
+import java.math.BigInteger;
+import java.util.function.Function;
+
+/**
+ * Per-key description of a block cipher for {@link BlockCipherEngine}: each
+ * plaintext block maps to {@code elementsPerBlock} residues of {@code modulus}.
+ * Only the direction that is actually used needs to be supplied.
+ * <p>
+ * {@code tagBytes} reserves room in each block for redundancy added by the
+ * encryptor, and {@code flags} records that encoding in the container header.
+ */
+@Builder
+public record BlockCipher(
+        CryptoAlgorithm algorithm,
+        BigInteger modulus,
+        int elementsPerBlock,
+        int flags,
+        int tagBytes,
+        byte[] keyFingerprint,
+        Function<BigInteger, BigInteger[]> encryptor,
+        Function<BigInteger[], BigInteger> decryptor,
+        FrameCodec legacyCodec
+) {
+
+    public BlockCipher {
+        if (elementsPerBlock <= 0) {
+            elementsPerBlock = 1;
+        }
+        if (legacyCodec == null) {
+            legacyCodec = FrameCodec.lengthPrefixed(elementsPerBlock);
+        }
+    }
+
+    public int plainBlockSize() {
+        return (modulus.bitLength() - 1) / 8 - tagBytes;
+    }
+
+    public int elementWidth() {
+        return (modulus.bitLength() + 7) / 8;
+    }
+
+    public int frameSize() {
+        return elementWidth() * elementsPerBlock;
+    }
+
+    /**
+     * Encrypts {@code length} plaintext bytes at {@code offset} into the
+     * fixed-width frame at {@code frameOffset} of {@code frame}.
+     */
+    public void encryptFrame(byte[] block, int offset, int length, byte[] frame, int frameOffset) {
+        BigInteger[] elements = encryptor.apply(new BigInteger(1, block, offset, length));
+        int width = elementWidth();
+        for (int i = 0; i < elements.length; i++) {
+            FixedWidthCodec.encode(elements[i], frame, frameOffset + i * width, width);
+        }
+    }
+
+    /**
+     * Decrypts the frame at {@code frameOffset} into a full plaintext block
+     * of {@link #plainBlockSize()} bytes at {@code blockOffset} of {@code block}.
+     */
+    public void decryptFrame(byte[] frame, int frameOffset, byte[] block, int blockOffset) {
+        int width = elementWidth();
+        BigInteger[] elements = new BigInteger[elementsPerBlock];
+        for (int i = 0; i < elementsPerBlock; i++) {
+            elements[i] = FixedWidthCodec.decode(frame, frameOffset + i * width, width);
+        }
+
+        try {
+            FixedWidthCodec.encode(decryptor.apply(elements), block, blockOffset, plainBlockSize());
+        } catch (CryptoOperationException e) {
+            throw new CryptoOperationException("Decrypted block does not fit the plaintext block size", e);
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package com.popov.hw.service.crypto.pipeline;
+
+import com.popov.hw.config.CryptoProperties;
+import com.popov.hw.enums.CiphertextFormat;
+import com.popov.hw.exception.CryptoOperationException;
+import com.popov.hw.exception.FileOperationException;
+import com.popov.hw.service.crypto.container.ContainerHeader;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.function.IntFunction;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Shared block loop of all crypto services. Encryption writes either the
+ * fixed-width container or the legacy length-prefixed format, depending on
+ * {@code crypto.format}; decryption detects the format from the file itself.
+ * With {@code crypto.memory-mapped} enabled, containers are processed through
+ * {@link MappedBlockProcessor} instead of the streaming pipeline.
+ * <p>
+ * The flags of a container header select the cipher used to decrypt it, so a
+ * file is always decrypted with the block encoding it was written with.
+ */
+@Component
+@RequiredArgsConstructor
+public class BlockCipherEngine {
+
+    private static final int OUTPUT_BUFFER_SIZE = 64 * 1024;
+
+    private final ParallelBlockPipeline pipeline;
+    private final MappedBlockProcessor mappedProcessor;
+    private final CryptoProperties properties;
+
+    public void encrypt(BlockCipher cipher, String inputPath, String outputPath) throws IOException {
+        if (properties.format() == CiphertextFormat.LEGACY) {
+            encryptLegacy(cipher, inputPath, outputPath);
+        } else if (useMappedIo(inputPath)) {
+            Path input = Path.of(inputPath);
+            ContainerHeader header = headerFor(cipher, Files.size(input));
+            mappedProcessor.encrypt(cipher, header, input, Path.of(outputPath));
+        } else {
+            encryptContainer(cipher, inputPath, outputPath);
+        }
+    }
+
+    public void decrypt(BlockCipher cipher, String inputPath, String outputPath) throws IOException {
+        decrypt(flags -> cipher, inputPath, outputPath);
+    }
+
+    /**
+     * Decrypts with the cipher that {@code cipherForFlags} returns for the
+     * container header flags; legacy files always use flags {@code 0}.
+     */
+    public void decrypt(IntFunction<BlockCipher> cipherForFlags, String inputPath, String outputPath) throws IOException {
+        if (useMappedIo(inputPath)) {
+            Path input = Path.of(inputPath);
+            ContainerHeader header = mappedProcessor.readHeader(input);
+            if (header != null) {
+                BlockCipher cipher = cipherForFlags.apply(header.flags());
+                verifyHeader(header, cipher);
+                mappedProcessor.decrypt(cipher, header, input, Path.of(outputPath));
+                return;
+            }
+        }
+
+        try (CiphertextFrameReader reader = CiphertextFrameReader.open(inputPath);
+             OutputStream out = new BufferedOutputStream(Files.newOutputStream(Path.of(outputPath)), OUTPUT_BUFFER_SIZE)) {
+
+            if (ContainerHeader.hasMagic(reader.peek(ContainerHeader.magicLength()))) {
+                decryptContainer(cipherForFlags, reader, out);
+            } else {
+                decryptLegacy(cipherForFlags.apply(0), reader, out);
+            }
+        }
+    }
+
+    public ContainerHeader headerFor(BlockCipher cipher, long originalLength) {
+        return new ContainerHeader(
+                cipher.algorithm(),
+                cipher.flags(),
+                cipher.keyFingerprint(),
+                cipher.plainBlockSize(),
+                cipher.elementWidth(),
+                cipher.elementsPerBlock(),
+                originalLength);
+    }
+
+    private boolean useMappedIo(String inputPath) {
+        return properties.memoryMapped() && !InputChannels.STDIN.equals(inputPath);
+    }
+
+    private void encryptContainer(BlockCipher cipher, String inputPath, String outputPath) throws IOException {
+        try (PlaintextBlockReader reader = PlaintextBlockReader.open(inputPath, cipher.plainBlockSize());
+             FileChannel channel = FileChannel.open(Path.of(outputPath), CREATE, WRITE, TRUNCATE_EXISTING)) {
+
+            channel.position(ContainerHeader.SIZE);
+            OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel), OUTPUT_BUFFER_SIZE);
+            int frameSize = cipher.frameSize();
+            pipeline.processBlocks(
+                    cipher.plainBlockSize(),
+                    frameSize,
+                    reader,
+                    cipher::encryptFrame,
+                    (frames, blockCount) -> out.write(frames, 0, blockCount * frameSize));
+            out.flush();
+
+            ByteBuffer header = headerFor(cipher, reader.bytesRead()).toByteBuffer();
+            long position = 0;
+            while (header.hasRemaining()) {
+                position += channel.write(header, position);
+            }
+        }
+    }
+
+    private void encryptLegacy(BlockCipher cipher, String inputPath, String outputPath) throws IOException {
+        try (PlaintextBlockReader reader = PlaintextBlockReader.open(inputPath, cipher.plainBlockSize());
+             DataOutputStream dos = new DataOutputStream(
+                     new BufferedOutputStream(Files.newOutputStream(Path.of(outputPath)), OUTPUT_BUFFER_SIZE))) {
+
+            pipeline.process(
+                    reader,
+                    block -> cipher.encryptor().apply(new BigInteger(1, block)),
+                    elements -> cipher.legacyCodec().write(dos, elements));
+        }
+    }
+
+    private void decryptContainer(IntFunction<BlockCipher> cipherForFlags, CiphertextFrameReader reader, OutputStream out) throws IOException {
+        byte[] rawHeader = new byte[ContainerHeader.SIZE];
+        reader.readFully(rawHeader);
+        ContainerHeader header = ContainerHeader.read(ByteBuffer.wrap(rawHeader));
+        BlockCipher cipher = cipherForFlags.apply(header.flags());
+        verifyHeader(header, cipher);
+
+        pipeline.processBlocks(
+                header.frameSize(),
+                header.plainBlockSize(),
+                new ContainerFrameSource(reader, header.frameSize(), header.blockCount()),
+                (frame, offset, length, block, blockOffset) -> cipher.decryptFrame(frame, offset, block, blockOffset),
+                new PlaintextSink(out, header.plainBlockSize(), header.originalLength()));
+
+        if (reader.hasMore()) {
+            throw new FileOperationException("Unexpected data after the last ciphertext block");
+        }
+    }
+
+    private void decryptLegacy(BlockCipher cipher, CiphertextFrameReader reader, OutputStream out) throws IOException {
+        pipeline.process(
+                () -> cipher.legacyCodec().read(reader),
+                cipher.decryptor(),
+                message -> writeWithoutSignByte(message, out));
+    }
+
+    private void verifyHeader(ContainerHeader header, BlockCipher cipher) {
+        if (header.algorithm() != cipher.algorithm()) {
+            throw new CryptoOperationException("Ciphertext was produced by " + header.algorithm() + ", not " + cipher.algorithm());
+        }
+        if (!Arrays.equals(header.keyFingerprint(), cipher.keyFingerprint())) {
+            throw new CryptoOperationException("Ciphertext was encrypted with a different key");
+        }
+        if (header.flags() != cipher.flags()) {
+            throw new CryptoOperationException("Unsupported ciphertext block encoding: flags " + header.flags());
+        }
+        if (header.plainBlockSize() != cipher.plainBlockSize()
+                || header.elementWidth() != cipher.elementWidth()
+                || header.elementsPerBlock() != cipher.elementsPerBlock()) {
+            throw new CryptoOperationException("Ciphertext block layout does not match the key");
+        }
+    }
+
+    /**
+     * Writes the magnitude of a legacy plaintext block, skipping the sign
+     * byte of {@link BigInteger#toByteArray()} without copying.
+     */
+    private void writeWithoutSignByte(BigInteger message, OutputStream out) throws IOException {
+        byte[] data = message.toByteArray();
+        int start = data[0] == 0 && data.length > 1 ? 1 : 0;
+        out.write(data, start, data.length - start);
+    }
+
+    private static final class ContainerFrameSource implements ChunkSource {
+
+        private final CiphertextFrameReader reader;
+        private final int frameSize;
+        private long remainingBlocks;
+
+        private ContainerFrameSource(CiphertextFrameReader reader, int frameSize, long blockCount) {
+            this.reader = reader;
+            this.frameSize = frameSize;
+            this.remainingBlocks = blockCount;
+        }
+
+        @Override
+        public int read(byte[] target, int offset, int length) throws IOException {
+            int frames = (int) Math.min(remainingBlocks, length / frameSize);
+            reader.readFully(target, offset, frames * frameSize);
+            remainingBlocks -= frames;
+            return frames * frameSize;
+        }
+    }
+
+    /**
+     * Writes fixed-size plaintext blocks, keeping only the trailing bytes of
+     * the final block so the output matches the original length.
+     */
+    private static final class PlaintextSink implements ChunkSink {
+
+        private final OutputStream out;
+        private final int blockSize;
+        private long remaining;
+
+        private PlaintextSink(OutputStream out, int blockSize, long originalLength) {
+            this.out = out;
+            this.blockSize = blockSize;
+            this.remaining = originalLength;
+        }
+
+        @Override
+        public void accept(byte[] blocks, int blockCount) throws IOException {
+            for (int i = 0; i < blockCount; i++) {
+                int length = (int) Math.min(blockSize, remaining);
+                out.write(blocks, (i + 1) * blockSize - length, length);
+                remaining -= length;
+            }
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.popov.hw.service.crypto.pipeline;
+
+import java.io.IOException;
+
+@FunctionalInterface
+public interface BlockSink<T> {
+
+    void accept(T block) throws IOException;
+}
@@ -0,0 +1,12 @@
+package com.popov.hw.service.crypto.pipeline;
+
+import java.io.IOException;
+
+@FunctionalInterface
+public interface BlockSource<T> {
+
+    /**
+     * Returns the next block, or {@code null} once the source is exhausted.
+     */
+    T next() throws IOException;
+}
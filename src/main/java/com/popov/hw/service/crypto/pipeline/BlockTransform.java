@@ -0,0 +1,11 @@
+package com.popov.hw.service.crypto.pipeline;
+
+/**
+ * Transforms one block from an input buffer into its fixed-size slot of an
+ * output buffer.
+ */
+@FunctionalInterface
+public interface BlockTransform {
+
+    void apply(byte[] input, int inputOffset, int inputLength, byte[] output, int outputOffset);
+}
@@ -0,0 +1,13 @@
+package com.popov.hw.service.crypto.pipeline;
+
+import java.io.IOException;
+
+@FunctionalInterface
+public interface ChunkSink {
+
+    /**
+     * Consumes the first {@code blockCount} output blocks of {@code buffer},
+     * which is reused once this method returns.
+     */
+    void accept(byte[] buffer, int blockCount) throws IOException;
+}
@@ -0,0 +1,13 @@
+package com.popov.hw.service.crypto.pipeline;
+
+import java.io.IOException;
+
+@FunctionalInterface
+public interface ChunkSource {
+
+    /**
+     * Reads up to {@code length} bytes into {@code target}, stopping short
+     * only at the end of input, and returns the number of bytes read.
+     */
+    int read(byte[] target, int offset, int length) throws IOException;
+}
@@ -0,0 +1,128 @@
+package com.popov.hw.service.crypto.pipeline;
+
+import com.popov.hw.exception.FileOperationException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * Buffered reader for length-prefixed ciphertext frames
+ * ({@code int length + BigInteger bytes}). End of input is detected by the
+ * channel returning -1 rather than by {@code available()}, so pipes, stdin
+ * and sockets are read to completion. A frame cut short by end of input is
+ * reported as an error instead of being silently dropped.
+ */
+public class CiphertextFrameReader implements Closeable {
+
+    private static final int BUFFER_SIZE = 256 * 1024;
+    private static final int MAX_FRAME_LENGTH = 64 * 1024 * 1024;
+
+    private final ReadableByteChannel channel;
+    private final ByteBuffer buffer;
+    private boolean endOfStream;
+
+    public CiphertextFrameReader(ReadableByteChannel channel) {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        this.buffer.flip();
+    }
+
+    public static CiphertextFrameReader open(String path) throws IOException {
+        return new CiphertextFrameReader(InputChannels.open(path));
+    }
+
+    /**
+     * Returns {@code true} if at least one more byte can be read.
+     */
+    public boolean hasMore() throws IOException {
+        return buffer.hasRemaining() || fill(1);
+    }
+
+    /**
+     * Returns up to {@code length} upcoming bytes without consuming them.
+     */
+    public byte[] peek(int length) throws IOException {
+        if (buffer.remaining() < length) {
+            fill(length);
+        }
+        byte[] prefix = new byte[Math.min(length, buffer.remaining())];
+        buffer.get(buffer.position(), prefix);
+        return prefix;
+    }
+
+    public boolean readBoolean() throws IOException {
+        require(1);
+        return buffer.get() != 0;
+    }
+
+    public int readInt() throws IOException {
+        require(Integer.BYTES);
+        return buffer.getInt();
+    }
+
+    public void readFully(byte[] target) throws IOException {
+        readFully(target, 0, target.length);
+    }
+
+    public void readFully(byte[] target, int offset, int length) throws IOException {
+        int end = offset + length;
+        while (offset < end) {
+            if (!buffer.hasRemaining() && !fill(1)) {
+                throw new FileOperationException("Truncated ciphertext frame");
+            }
+            int count = Math.min(end - offset, buffer.remaining());
+            buffer.get(target, offset, count);
+            offset += count;
+        }
+    }
+
+    public BigInteger readBigInteger() throws IOException {
+        int length = readInt();
+        if (length <= 0 || length > MAX_FRAME_LENGTH) {
+            throw new FileOperationException("Corrupted ciphertext frame length: " + length);
+        }
+        byte[] bytes = new byte[length];
+        readFully(bytes);
+        return new BigInteger(bytes);
+    }
+
+    /**
+     * Reads the next length-prefixed value, or returns {@code null} at a clean
+     * end of input.
+     */
+    public BigInteger nextBigInteger() throws IOException {
+        return hasMore() ? readBigInteger() : null;
+    }
+
+    private void require(int bytes) throws IOException {
+        if (buffer.remaining() < bytes && !fill(bytes)) {
+            throw new FileOperationException("Truncated ciphertext frame");
+        }
+    }
+
+    private boolean fill(int minimum) throws IOException {
+        if (endOfStream) {
+            return buffer.remaining() >= minimum;
+        }
+        buffer.compact();
+        try {
+            while (buffer.position() < minimum) {
+                if (channel.read(buffer) < 0) {
+                    endOfStream = true;
+                    break;
+                }
+            }
+        } finally {
+            buffer.flip();
+        }
+        return buffer.remaining() >= minimum;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,43 @@
+package com.popov.hw.service.crypto.pipeline;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigInteger;
+
+/**
+ * Encoding of one ciphertext block in the legacy, length-prefixed format.
+ */
+public interface FrameCodec {
+
+    void write(DataOutputStream dos, BigInteger[] elements) throws IOException;
+
+    /**
+     * Returns the elements of the next block, or {@code null} at a clean end of input.
+     */
+    BigInteger[] read(CiphertextFrameReader reader) throws IOException;
+
+    static FrameCodec lengthPrefixed(int elementsPerBlock) {
+        return new FrameCodec() {
+            @Override
+            public void write(DataOutputStream dos, BigInteger[] elements) throws IOException {
+                for (BigInteger element : elements) {
+                    byte[] bytes = element.toByteArray();
+                    dos.writeInt(bytes.length);
+                    dos.write(bytes);
+                }
+            }
+
+            @Override
+            public BigInteger[] read(CiphertextFrameReader reader) throws IOException {
+                if (!reader.hasMore()) {
+                    return null;
+                }
+                BigInteger[] elements = new BigInteger[elementsPerBlock];
+                for (int i = 0; i < elementsPerBlock; i++) {
+                    elements[i] = reader.readBigInteger();
+                }
+                return elements;
+            }
+        };
+    }
+}
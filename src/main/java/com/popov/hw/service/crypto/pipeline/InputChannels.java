@@ -0,0 +1,23 @@
+package com.popov.hw.service.crypto.pipeline;
+
+import lombok.experimental.UtilityClass;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+@UtilityClass
+public class InputChannels {
+
+    public static final String STDIN = "-";
+
+    public static ReadableByteChannel open(String path) throws IOException {
+        if (STDIN.equals(path)) {
+            return Channels.newChannel(System.in);
+        }
+        return FileChannel.open(Path.of(path), StandardOpenOption.READ);
+    }
+}
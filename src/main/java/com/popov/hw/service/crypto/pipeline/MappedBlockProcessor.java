@@ -0,0 +1,149 @@
+package com.popov.hw.service.crypto.pipeline;
+
+import com.popov.hw.exception.FileOperationException;
+import com.popov.hw.service.crypto.container.ContainerHeader;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Container encryption and decryption over memory-mapped files. Because every
+ * block has a fixed input and output offset, the file is processed in mapped
+ * regions that are split into disjoint block ranges, one per worker, and each
+ * worker writes straight into its part of the mapped output without locking,
+ * reusing one plaintext and one frame buffer for its whole range.
+ */
+@Component
+@RequiredArgsConstructor
+public class MappedBlockProcessor {
+
+    private static final long REGION_SIZE = 256L * 1024 * 1024;
+
+    private final ForkJoinPool cryptoPool;
+
+    public void encrypt(BlockCipher cipher, ContainerHeader header, Path inputPath, Path outputPath) throws IOException {
+        try (FileChannel input = FileChannel.open(inputPath, READ);
+             FileChannel output = FileChannel.open(outputPath, READ, WRITE, CREATE, TRUNCATE_EXISTING)) {
+
+            MappedByteBuffer headerRegion = output.map(FileChannel.MapMode.READ_WRITE, 0, ContainerHeader.SIZE);
+            headerRegion.put(header.toByteBuffer());
+
+            int plainBlockSize = header.plainBlockSize();
+            int frameSize = header.frameSize();
+            long blocksPerRegion = Math.max(1, REGION_SIZE / Math.max(plainBlockSize, frameSize));
+
+            for (long first = 0; first < header.blockCount(); first += blocksPerRegion) {
+                long last = Math.min(first + blocksPerRegion, header.blockCount());
+                long inputStart = first * plainBlockSize;
+                long inputEnd = Math.min(last * plainBlockSize, header.originalLength());
+
+                MappedByteBuffer source = input.map(FileChannel.MapMode.READ_ONLY, inputStart, inputEnd - inputStart);
+                MappedByteBuffer target = output.map(FileChannel.MapMode.READ_WRITE,
+                        header.blockOffset(first), (last - first) * frameSize);
+
+                forEachRange(last - first, (from, to) -> {
+                    byte[] block = new byte[plainBlockSize];
+                    byte[] frame = new byte[frameSize];
+                    for (long i = from; i < to; i++) {
+                        int offset = (int) (i * plainBlockSize);
+                        int length = Math.min(plainBlockSize, source.limit() - offset);
+                        source.get(offset, block, 0, length);
+                        cipher.encryptFrame(block, 0, length, frame, 0);
+                        target.put((int) (i * frameSize), frame);
+                    }
+                });
+            }
+        }
+    }
+
+    public void decrypt(BlockCipher cipher, ContainerHeader header, Path inputPath, Path outputPath) throws IOException {
+        try (FileChannel input = FileChannel.open(inputPath, READ);
+             FileChannel output = FileChannel.open(outputPath, READ, WRITE, CREATE, TRUNCATE_EXISTING)) {
+
+            if (input.size() != header.containerSize()) {
+                throw new FileOperationException("Container size does not match its header");
+            }
+
+            int plainBlockSize = header.plainBlockSize();
+            int frameSize = header.frameSize();
+            long blocksPerRegion = Math.max(1, REGION_SIZE / Math.max(plainBlockSize, frameSize));
+
+            for (long first = 0; first < header.blockCount(); first += blocksPerRegion) {
+                long last = Math.min(first + blocksPerRegion, header.blockCount());
+                long outputStart = first * plainBlockSize;
+                long outputEnd = Math.min(last * plainBlockSize, header.originalLength());
+
+                MappedByteBuffer source = input.map(FileChannel.MapMode.READ_ONLY,
+                        header.blockOffset(first), (last - first) * frameSize);
+                MappedByteBuffer target = output.map(FileChannel.MapMode.READ_WRITE, outputStart, outputEnd - outputStart);
+
+                forEachRange(last - first, (from, to) -> {
+                    byte[] frame = new byte[frameSize];
+                    byte[] block = new byte[plainBlockSize];
+                    for (long i = from; i < to; i++) {
+                        source.get((int) (i * frameSize), frame);
+                        cipher.decryptFrame(frame, 0, block, 0);
+                        int offset = (int) (i * plainBlockSize);
+                        int length = Math.min(plainBlockSize, target.limit() - offset);
+                        target.put(offset, block, plainBlockSize - length, length);
+                    }
+                });
+            }
+        }
+    }
+
+    /**
+     * Reads the container header of a file, or returns {@code null} if the
+     * file does not start with one.
+     */
+    public ContainerHeader readHeader(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, READ)) {
+            if (channel.size() < ContainerHeader.SIZE) {
+                return null;
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(ContainerHeader.SIZE);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, buffer.position()) < 0) {
+                    return null;
+                }
+            }
+            buffer.flip();
+
+            byte[] magic = new byte[ContainerHeader.magicLength()];
+            buffer.get(0, magic);
+            return ContainerHeader.hasMagic(magic) ? ContainerHeader.read(buffer) : null;
+        }
+    }
+
+    private void forEachRange(long blockCount, BlockRange range) {
+        int workers = (int) Math.min(cryptoPool.getParallelism(), blockCount);
+        long perWorker = (blockCount + workers - 1) / workers;
+
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(workers);
+        for (long from = 0; from < blockCount; from += perWorker) {
+            long start = from;
+            long end = Math.min(from + perWorker, blockCount);
+            tasks.add(cryptoPool.submit(() -> range.process(start, end)));
+        }
+        tasks.forEach(ForkJoinTask::join);
+    }
+
+    @FunctionalInterface
+    private interface BlockRange {
+        void process(long from, long to);
+    }
+}
@@ -0,0 +1,175 @@
+package com.popov.hw.service.crypto.pipeline;
+
+import com.popov.hw.config.CryptoProperties;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Function;
+
+/**
+ * Reads blocks sequentially, transforms chunks of them on the crypto pool and
+ * hands the results to the sink in their original order. At most
+ * {@code 2 * parallelism} chunks are in flight, so memory stays bounded.
+ * <p>
+ * Fixed-size blocks go through {@link #processBlocks}, which reads and
+ * transforms whole chunks in recycled buffers instead of one array per block.
+ */
+@Component
+@RequiredArgsConstructor
+public class ParallelBlockPipeline {
+
+    private final ForkJoinPool cryptoPool;
+    private final CryptoProperties properties;
+
+    public <I, O> void process(BlockSource<I> source, Function<I, O> transform, BlockSink<O> sink) throws IOException {
+        if (cryptoPool.getParallelism() == 1) {
+            processSequentially(source, transform, sink);
+            return;
+        }
+
+        int maxInFlight = cryptoPool.getParallelism() * 2;
+        Deque<ForkJoinTask<List<O>>> inFlight = new ArrayDeque<>(maxInFlight);
+
+        try {
+            List<I> chunk;
+            while (!(chunk = readChunk(source)).isEmpty()) {
+                List<I> blocks = chunk;
+                inFlight.addLast(cryptoPool.submit(() -> transformChunk(blocks, transform)));
+
+                if (inFlight.size() >= maxInFlight) {
+                    writeChunk(inFlight.removeFirst().join(), sink);
+                }
+            }
+            while (!inFlight.isEmpty()) {
+                writeChunk(inFlight.removeFirst().join(), sink);
+            }
+        } finally {
+            inFlight.forEach(task -> task.cancel(true));
+        }
+    }
+
+    /**
+     * Reads chunks of up to {@code chunkSize} blocks of {@code inputBlockSize}
+     * bytes (the very last block may be shorter), transforms every block into
+     * an {@code outputBlockSize} slot and hands each chunk to the sink in
+     * order. At most {@code 2 * parallelism + 1} buffer pairs are ever
+     * allocated; they are reused once the sink has consumed them.
+     */
+    public void processBlocks(int inputBlockSize, int outputBlockSize,
+                              ChunkSource source, BlockTransform transform, ChunkSink sink) throws IOException {
+        int chunkSize = properties.chunkSize();
+        if (cryptoPool.getParallelism() == 1) {
+            ChunkBuffer buffer = new ChunkBuffer(inputBlockSize, outputBlockSize, chunkSize);
+            while (buffer.fill(source)) {
+                buffer.transform(transform);
+                buffer.drain(sink);
+            }
+            return;
+        }
+
+        int maxInFlight = cryptoPool.getParallelism() * 2;
+        Deque<ChunkBuffer> free = new ArrayDeque<>(maxInFlight + 1);
+        Deque<ForkJoinTask<ChunkBuffer>> inFlight = new ArrayDeque<>(maxInFlight);
+
+        try {
+            while (true) {
+                ChunkBuffer buffer = free.isEmpty()
+                        ? new ChunkBuffer(inputBlockSize, outputBlockSize, chunkSize)
+                        : free.pop();
+                if (!buffer.fill(source)) {
+                    break;
+                }
+                inFlight.addLast(cryptoPool.submit(() -> buffer.transform(transform)));
+
+                if (inFlight.size() >= maxInFlight) {
+                    free.push(inFlight.removeFirst().join().drain(sink));
+                }
+            }
+            while (!inFlight.isEmpty()) {
+                free.push(inFlight.removeFirst().join().drain(sink));
+            }
+        } finally {
+            inFlight.forEach(task -> task.cancel(true));
+        }
+    }
+
+    private <I, O> void processSequentially(BlockSource<I> source, Function<I, O> transform, BlockSink<O> sink) throws IOException {
+        I block;
+        while ((block = source.next()) != null) {
+            sink.accept(transform.apply(block));
+        }
+    }
+
+    private <I> List<I> readChunk(BlockSource<I> source) throws IOException {
+        List<I> chunk = new ArrayList<>(properties.chunkSize());
+        I block;
+        while (chunk.size() < properties.chunkSize() && (block = source.next()) != null) {
+            chunk.add(block);
+        }
+        return chunk;
+    }
+
+    private <I, O> List<O> transformChunk(List<I> blocks, Function<I, O> transform) {
+        List<O> results = new ArrayList<>(blocks.size());
+        for (I block : blocks) {
+            results.add(transform.apply(block));
+        }
+        return results;
+    }
+
+    private <O> void writeChunk(List<O> results, BlockSink<O> sink) throws IOException {
+        for (O result : results) {
+            sink.accept(result);
+        }
+    }
+
+    /**
+     * Input and output buffers of one chunk. Filled and drained by the
+     * calling thread, transformed by one worker in between.
+     */
+    private static final class ChunkBuffer {
+
+        private final int inputBlockSize;
+        private final int outputBlockSize;
+        private final byte[] input;
+        private final byte[] output;
+        private int length;
+
+        private ChunkBuffer(int inputBlockSize, int outputBlockSize, int blocks) {
+            this.inputBlockSize = inputBlockSize;
+            this.outputBlockSize = outputBlockSize;
+            this.input = new byte[inputBlockSize * blocks];
+            this.output = new byte[outputBlockSize * blocks];
+        }
+
+        private boolean fill(ChunkSource source) throws IOException {
+            length = source.read(input, 0, input.length);
+            return length > 0;
+        }
+
+        private int blockCount() {
+            return (length + inputBlockSize - 1) / inputBlockSize;
+        }
+
+        private ChunkBuffer transform(BlockTransform transform) {
+            int blocks = blockCount();
+            for (int i = 0; i < blocks; i++) {
+                int offset = i * inputBlockSize;
+                transform.apply(input, offset, Math.min(inputBlockSize, length - offset), output, i * outputBlockSize);
+            }
+            return this;
+        }
+
+        private ChunkBuffer drain(ChunkSink sink) throws IOException {
+            sink.accept(output, blockCount());
+            return this;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.popov.hw.service.crypto.pipeline;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * Streams a plaintext file as consecutive blocks of {@code blockSize} bytes
+ * (the last one may be shorter) through a fixed read buffer, so memory use
+ * does not depend on the file size. As a {@link ChunkSource} it fills
+ * caller-owned buffers instead.
+ */
+public class PlaintextBlockReader implements BlockSource<byte[]>, ChunkSource, Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final ReadableByteChannel channel;
+    private final ByteBuffer buffer;
+    private final int blockSize;
+    private boolean endOfStream;
+    private long bytesRead;
+
+    public PlaintextBlockReader(ReadableByteChannel channel, int blockSize) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("Modulus is too small to hold a single byte per block");
+        }
+        this.channel = channel;
+        this.blockSize = blockSize;
+        this.buffer = ByteBuffer.allocateDirect(Math.max(BUFFER_SIZE, blockSize));
+        this.buffer.flip();
+    }
+
+    public static PlaintextBlockReader open(String path, int blockSize) throws IOException {
+        return new PlaintextBlockReader(InputChannels.open(path), blockSize);
+    }
+
+    @Override
+    public byte[] next() throws IOException {
+        byte[] block = new byte[blockSize];
+        int filled = 0;
+
+        while (filled < blockSize) {
+            if (!buffer.hasRemaining() && !refill()) {
+                break;
+            }
+            int length = Math.min(blockSize - filled, buffer.remaining());
+            buffer.get(block, filled, length);
+            filled += length;
+        }
+
+        if (filled == 0) {
+            return null;
+        }
+        bytesRead += filled;
+        if (filled < blockSize) {
+            byte[] last = new byte[filled];
+            System.arraycopy(block, 0, last, 0, filled);
+            return last;
+        }
+        return block;
+    }
+
+    @Override
+    public int read(byte[] target, int offset, int length) throws IOException {
+        int filled = 0;
+        while (filled < length) {
+            if (!buffer.hasRemaining() && !refill()) {
+                break;
+            }
+            int count = Math.min(length - filled, buffer.remaining());
+            buffer.get(target, offset + filled, count);
+            filled += count;
+        }
+        bytesRead += filled;
+        return filled;
+    }
+
+    public long bytesRead() {
+        return bytesRead;
+    }
+
+    private boolean refill() throws IOException {
+        if (endOfStream) {
+            return false;
+        }
+        buffer.clear();
+        int read;
+        do {
+            read = channel.read(buffer);
+        } while (read == 0);
+        buffer.flip();
+        if (read < 0) {
+            endOfStream = true;
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,79 @@
+package com.popov.hw.service.crypto.random;
+
+import java.math.BigInteger;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Uniform scalars in {@code [origin, bound)}. Scalars are generated in bulk
+ * on a background thread into a bounded queue; when the queue runs dry the
+ * caller generates one itself instead of waiting.
+ * <p>
+ * Each scalar is {@code origin + r mod (bound - origin)} for a random
+ * {@code r} that is {@link #EXTRA_BITS} longer than the range, so there is no
+ * rejection loop and the bias is below {@code 2^-64}.
+ */
+public final class NonceStream {
+
+    static final int EXTRA_BITS = 64;
+
+    private final BigInteger origin;
+    private final BigInteger span;
+    private final int width;
+    private final int batchSize;
+    private final BlockingQueue<BigInteger> ready;
+    private final AtomicBoolean refilling = new AtomicBoolean();
+    private final Executor refiller;
+    private final NonceSupply supply;
+
+    NonceStream(BigInteger origin, BigInteger bound, int capacity, Executor refiller, NonceSupply supply) {
+        this.origin = origin;
+        this.span = bound.subtract(origin);
+        this.width = (span.bitLength() + EXTRA_BITS + 7) / 8;
+        this.batchSize = Math.max(1, capacity / 4);
+        this.ready = new ArrayBlockingQueue<>(capacity);
+        this.refiller = refiller;
+        this.supply = supply;
+    }
+
+    public BigInteger next() {
+        BigInteger scalar = ready.poll();
+        if (ready.size() < batchSize) {
+            scheduleRefill();
+        }
+        return scalar != null ? scalar : reduce(supply.randomBytes(width), 0);
+    }
+
+    private void scheduleRefill() {
+        if (!refilling.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            refiller.execute(this::refill);
+        } catch (RejectedExecutionException e) {
+            refilling.set(false);
+        }
+    }
+
+    private void refill() {
+        try {
+            while (ready.remainingCapacity() >= batchSize) {
+                byte[] random = supply.randomBytes(batchSize * width);
+                for (int offset = 0; offset < random.length; offset += width) {
+                    if (!ready.offer(reduce(random, offset))) {
+                        return;
+                    }
+                }
+            }
+        } finally {
+            refilling.set(false);
+        }
+    }
+
+    private BigInteger reduce(byte[] random, int offset) {
+        return new BigInteger(1, random, offset, width).mod(span).add(origin);
+    }
+}
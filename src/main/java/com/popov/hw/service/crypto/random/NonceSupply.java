@@ -0,0 +1,94 @@
+package com.popov.hw.service.crypto.random;
+
+import com.popov.hw.config.CryptoProperties;
+import org.springframework.stereotype.Component;
+
+import java.math.BigInteger;
+import java.security.DrbgParameters;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static java.security.DrbgParameters.Capability.NONE;
+
+/**
+ * Session randomness for ElGamal and EC encryption. Every thread draws from
+ * its own DRBG, personalised with a seed from a shared {@link SecureRandom},
+ * so parallel blocks do not contend on one lock. Ranges get a
+ * {@link NonceStream} that keeps {@code crypto.nonce-queue-capacity} scalars
+ * ready.
+ */
+@Component
+public class NonceSupply implements AutoCloseable {
+
+    private static final int MAX_CACHED_STREAMS = 8;
+    private static final int DRBG_STRENGTH = 256;
+    private static final int PERSONALIZATION_BYTES = 32;
+
+    private final SecureRandom seedSource = new SecureRandom();
+    private final ThreadLocal<SecureRandom> drbg = ThreadLocal.withInitial(this::newDrbg);
+    private final ExecutorService refiller;
+    private final int capacity;
+
+    private final Map<List<BigInteger>, NonceStream> streams = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<List<BigInteger>, NonceStream> eldest) {
+                    return size() > MAX_CACHED_STREAMS;
+                }
+            });
+
+    public NonceSupply(CryptoProperties properties) {
+        this.capacity = properties.nonceQueueCapacity();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 30, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), task -> {
+                    Thread thread = new Thread(task, "nonce-refill");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        this.refiller = executor;
+    }
+
+    /**
+     * Scalars uniform in {@code [origin, bound)}; streams are cached per range.
+     *
+     * @throws IllegalArgumentException if the range is empty
+     */
+    public NonceStream stream(BigInteger origin, BigInteger bound) {
+        if (bound.compareTo(origin) <= 0) {
+            throw new IllegalArgumentException("Empty nonce range [" + origin + ", " + bound + ")");
+        }
+        return streams.computeIfAbsent(List.of(origin, bound),
+                key -> new NonceStream(origin, bound, capacity, refiller, this));
+    }
+
+    byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        drbg.get().nextBytes(bytes);
+        return bytes;
+    }
+
+    private SecureRandom newDrbg() {
+        byte[] personalization = new byte[PERSONALIZATION_BYTES];
+        seedSource.nextBytes(personalization);
+        try {
+            return SecureRandom.getInstance("DRBG",
+                    DrbgParameters.instantiation(DRBG_STRENGTH, NONE, personalization));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("DRBG is not available", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        refiller.shutdownNow();
+    }
+}
@@ -0,0 +1,15 @@
+package com.popov.hw.service.crypto.threepass;
+
+/**
+ * Latency of one exchange pass over all blocks it processed.
+ */
+public record PassStatistics(String name, long blocks, long totalNanos, long maxNanos) {
+
+    public double averageMicros() {
+        return blocks == 0 ? 0 : totalNanos / 1e3 / blocks;
+    }
+
+    public double maxMicros() {
+        return maxNanos / 1e3;
+    }
+}
@@ -0,0 +1,218 @@
+package com.popov.hw.service.crypto.threepass;
+
+import com.popov.hw.config.CryptoProperties;
+import com.popov.hw.exception.CryptoOperationException;
+import com.popov.hw.service.crypto.container.FixedWidthCodec;
+import com.popov.hw.service.crypto.context.ShamirKeyContext;
+import com.popov.hw.service.crypto.pipeline.PlaintextBlockReader;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+
+/**
+ * Simulates the full Shamir three-pass exchange on a file: A locks each
+ * block with {@code cA}, B adds {@code cB}, A removes its lock with
+ * {@code dA} and B recovers the block with {@code dB}. The four passes are
+ * stages of a pipeline, each on its own thread and connected by bounded
+ * queues of {@code crypto.chunk-size} blocks, so while B unlocks block
+ * {@code i} A can already be locking block {@code i + 3}. The recovered
+ * plaintext is written to the output, which should equal the input.
+ */
+@Component
+@RequiredArgsConstructor
+public class ThreePassExchange {
+
+    private static final int OUTPUT_BUFFER_SIZE = 64 * 1024;
+    private static final long POLL_MILLIS = 100;
+    private static final Block END = new Block(0, null);
+
+    private final CryptoProperties properties;
+
+    public ThreePassReport run(ShamirKeyContext keys, String inputPath, String outputPath) throws IOException {
+        List<Stage> stages = List.of(
+                new Stage("A: m^cA", keys::lockA),
+                new Stage("B: x^cB", keys::lockB),
+                new Stage("A: x^dA", keys::unlockA),
+                new Stage("B: x^dB", keys::unlockB));
+
+        List<BlockingQueue<Block>> queues = new ArrayList<>(stages.size() + 1);
+        for (int i = 0; i <= stages.size(); i++) {
+            queues.add(new ArrayBlockingQueue<>(properties.chunkSize()));
+        }
+
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<Thread> threads = new ArrayList<>(stages.size() + 1);
+        long start = System.nanoTime();
+        long blocks = 0;
+        long bytes = 0;
+
+        int blockSize = (keys.p().bitLength() - 1) / 8;
+        try (PlaintextBlockReader reader = PlaintextBlockReader.open(inputPath, blockSize);
+             OutputStream out = new BufferedOutputStream(Files.newOutputStream(Path.of(outputPath)), OUTPUT_BUFFER_SIZE)) {
+            try {
+                threads.add(start("three-pass-reader", failure, () -> read(reader, queues.get(0))));
+                for (int i = 0; i < stages.size(); i++) {
+                    Stage stage = stages.get(i);
+                    BlockingQueue<Block> input = queues.get(i);
+                    BlockingQueue<Block> output = queues.get(i + 1);
+                    threads.add(start("three-pass-" + (i + 1), failure, () -> stage.run(input, output)));
+                }
+
+                BlockingQueue<Block> recovered = queues.get(stages.size());
+                byte[] buffer = new byte[blockSize];
+                while (true) {
+                    Block block = recovered.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                    rethrow(failure.get());
+                    if (block == END) {
+                        break;
+                    }
+                    if (block != null) {
+                        write(block, buffer, out);
+                        blocks++;
+                        bytes += block.length;
+                    }
+                }
+            } finally {
+                stop(threads);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CryptoOperationException("Three-pass exchange was interrupted", e);
+        }
+
+        List<PassStatistics> passes = stages.stream().map(Stage::statistics).toList();
+        return new ThreePassReport(passes, blocks, bytes, System.nanoTime() - start);
+    }
+
+    private static void read(PlaintextBlockReader reader, BlockingQueue<Block> queue) throws Exception {
+        byte[] plaintext;
+        while ((plaintext = reader.next()) != null) {
+            queue.put(new Block(plaintext.length, new BigInteger(1, plaintext)));
+        }
+        queue.put(END);
+    }
+
+    private static void write(Block block, byte[] buffer, OutputStream out) throws IOException {
+        try {
+            FixedWidthCodec.encode(block.value, buffer, 0, block.length);
+        } catch (CryptoOperationException e) {
+            throw new CryptoOperationException("Recovered block does not match the original; check Ca, Cb and p", e);
+        }
+        out.write(buffer, 0, block.length);
+    }
+
+    private static Thread start(String name, AtomicReference<Throwable> failure, Task task) {
+        Thread thread = new Thread(() -> {
+            try {
+                task.run();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Throwable e) {
+                failure.compareAndSet(null, e);
+            }
+        }, name);
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    private static void stop(List<Thread> threads) {
+        threads.forEach(Thread::interrupt);
+        boolean interrupted = false;
+        for (Thread thread : threads) {
+            while (thread.isAlive()) {
+                try {
+                    thread.join();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void rethrow(Throwable failure) throws IOException {
+        if (failure == null) {
+            return;
+        }
+        if (failure instanceof IOException e) {
+            throw e;
+        }
+        if (failure instanceof RuntimeException e) {
+            throw e;
+        }
+        throw new CryptoOperationException("Three-pass exchange failed", failure);
+    }
+
+    @FunctionalInterface
+    private interface Task {
+        void run() throws Exception;
+    }
+
+    /**
+     * One block on its way through the passes; {@code length} is its
+     * plaintext size, so the last, shorter block is restored exactly.
+     */
+    private static final class Block {
+
+        private final int length;
+        private BigInteger value;
+
+        private Block(int length, BigInteger value) {
+            this.length = length;
+            this.value = value;
+        }
+    }
+
+    /**
+     * One pass. Its counters are only touched by its own thread and read
+     * after that thread has been joined.
+     */
+    private static final class Stage {
+
+        private final String name;
+        private final UnaryOperator<BigInteger> pass;
+        private long blocks;
+        private long totalNanos;
+        private long maxNanos;
+
+        private Stage(String name, UnaryOperator<BigInteger> pass) {
+            this.name = name;
+            this.pass = pass;
+        }
+
+        private void run(BlockingQueue<Block> input, BlockingQueue<Block> output) throws InterruptedException {
+            Block block;
+            while ((block = input.take()) != END) {
+                long start = System.nanoTime();
+                block.value = pass.apply(block.value);
+                long latency = System.nanoTime() - start;
+
+                blocks++;
+                totalNanos += latency;
+                maxNanos = Math.max(maxNanos, latency);
+                output.put(block);
+            }
+            output.put(END);
+        }
+
+        private PassStatistics statistics() {
+            return new PassStatistics(name, blocks, totalNanos, maxNanos);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.popov.hw.service.crypto.threepass;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Outcome of one simulated three-pass exchange: per-pass latency in pass
+ * order, plus the end-to-end volume and wall-clock time.
+ */
+public record ThreePassReport(List<PassStatistics> passes, long blocks, long bytes, long elapsedNanos) {
+
+    private static final double NANOS_PER_SECOND = 1e9;
+    private static final double BYTES_PER_MEGABYTE = 1024.0 * 1024.0;
+
+    public long elapsedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+    }
+
+    public double blocksPerSecond() {
+        return blocks * NANOS_PER_SECOND / Math.max(1, elapsedNanos);
+    }
+
+    public double megabytesPerSecond() {
+        return bytes / BYTES_PER_MEGABYTE * NANOS_PER_SECOND / Math.max(1, elapsedNanos);
+    }
+}
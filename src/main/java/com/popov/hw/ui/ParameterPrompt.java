@@ -0,0 +1,12 @@
+package com.popov.hw.ui;
+
+/**
+ * The part of a user interface the parameter collectors need: asking for a
+ * value and showing what was derived from it.
+ */
+public interface ParameterPrompt {
+
+    String promptInput(String messageKey, Object... args);
+
+    void displayInfo(String messageKey, Object... args);
+}
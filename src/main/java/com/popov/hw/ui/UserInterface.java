@@ -3,20 +3,16 @@ package com.popov.hw.ui;
 import com.popov.hw.enums.CipherOperation;
 import com.popov.hw.enums.CryptoAlgorithm;
 
-public interface UserInterface {
+public interface UserInterface extends ParameterPrompt {
 
     CryptoAlgorithm selectAlgorithm();
 
-    CipherOperation selectOperation();
+    CipherOperation selectOperation(CryptoAlgorithm algorithm);
 
     String getInputFilePath();
 
     String getOutputFilePath();
 
-    String promptInput(String messageKey, Object... args);
-
-    void displayInfo(String messageKey, Object... args);
-
     void displayError(String message);
 
     void displaySuccess();
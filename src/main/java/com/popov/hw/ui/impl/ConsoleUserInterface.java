@@ -44,7 +44,7 @@ public class ConsoleUserInterface implements UserInterface {
     }
 
     @Override
-    public CipherOperation selectOperation() {
+    public CipherOperation selectOperation(CryptoAlgorithm algorithm) {
         System.out.println("\n" + UIStyler.createSeparator(BOX_WIDTH));
         System.out.println(UIStyler.subtitle("  " + messageService.getMessage("operation.description.select")));
         System.out.println(UIStyler.createSeparator(BOX_WIDTH));
@@ -60,11 +60,21 @@ public class ConsoleUserInterface implements UserInterface {
                 messageService.getMessage("operation.decrypt") + " - " + messageService.getMessage("operation.decrypt.description"),
                 "🔓"
         ));
+        boolean exchange = CipherOperation.EXCHANGE.supports(algorithm);
+        if (exchange) {
+            System.out.println(UIStyler.createMenuItem(
+                    3,
+                    messageService.getMessage("operation.exchange") + " - " + messageService.getMessage("operation.exchange.description"),
+                    "🔁"
+            ));
+        }
 
         System.out.println("\n" + UIStyler.createSeparator(BOX_WIDTH));
         System.out.println();
 
-        System.out.print(UIStyler.prompt(messageService.getEnterOperationPrompt()));
+        System.out.print(UIStyler.prompt(exchange
+                ? messageService.getMessage("app.enter.operation.exchange")
+                : messageService.getEnterOperationPrompt()));
         String input = scanner.nextLine().trim();
 
         try {
@@ -0,0 +1,23 @@
+package com.popov.hw.workflow;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Outcome of one scheduled workflow request. {@code failure} is {@code null}
+ * when the job succeeded.
+ */
+public record BatchJobResult(
+        WorkflowRequest request,
+        long latencyNanos,
+        long inputBytes,
+        RuntimeException failure
+) {
+
+    public boolean succeeded() {
+        return failure == null;
+    }
+
+    public long latencyMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(latencyNanos);
+    }
+}
@@ -0,0 +1,34 @@
+package com.popov.hw.workflow;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-job results of a batch, in submission order, plus the wall-clock time
+ * of the whole batch.
+ */
+public record BatchReport(List<BatchJobResult> jobs, long elapsedNanos) {
+
+    private static final double NANOS_PER_SECOND = 1e9;
+    private static final double BYTES_PER_MEGABYTE = 1024.0 * 1024.0;
+
+    public long failedCount() {
+        return jobs.stream().filter(job -> !job.succeeded()).count();
+    }
+
+    public long totalInputBytes() {
+        return jobs.stream().mapToLong(BatchJobResult::inputBytes).sum();
+    }
+
+    public long elapsedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+    }
+
+    public double filesPerSecond() {
+        return jobs.size() * NANOS_PER_SECOND / Math.max(1, elapsedNanos);
+    }
+
+    public double megabytesPerSecond() {
+        return totalInputBytes() / BYTES_PER_MEGABYTE * NANOS_PER_SECOND / Math.max(1, elapsedNanos);
+    }
+}
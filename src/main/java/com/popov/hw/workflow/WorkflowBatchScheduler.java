@@ -0,0 +1,99 @@
+package com.popov.hw.workflow;
+
+import com.popov.hw.config.CryptoProperties;
+import com.popov.hw.service.crypto.pipeline.InputChannels;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+
+/**
+ * Runs a queue of workflow requests through {@link WorkflowExecutor}, at most
+ * {@code crypto.batch-concurrency} at a time. Jobs run on the batch job
+ * executor and only wait there; their block work is done on the shared crypto
+ * pool, so CPU use stays sized to the cores however many jobs are in flight.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class WorkflowBatchScheduler {
+
+    private final WorkflowExecutor workflowExecutor;
+    private final ExecutorService batchJobExecutor;
+    private final CryptoProperties properties;
+
+    /**
+     * Runs every request and blocks until all of them have finished. A failed
+     * job is recorded in the report and does not stop the others;
+     * {@code listener} sees each result as soon as its job completes.
+     */
+    public BatchReport run(List<WorkflowRequest> requests, Consumer<BatchJobResult> listener) throws InterruptedException {
+        Semaphore slots = new Semaphore(properties.batchConcurrency());
+        List<Future<BatchJobResult>> futures = new ArrayList<>(requests.size());
+        long start = System.nanoTime();
+
+        try {
+            for (WorkflowRequest request : requests) {
+                slots.acquire();
+                try {
+                    futures.add(batchJobExecutor.submit(() -> {
+                        try {
+                            BatchJobResult result = runJob(request);
+                            listener.accept(result);
+                            return result;
+                        } finally {
+                            slots.release();
+                        }
+                    }));
+                } catch (RejectedExecutionException e) {
+                    slots.release();
+                    throw e;
+                }
+            }
+
+            List<BatchJobResult> results = new ArrayList<>(futures.size());
+            for (Future<BatchJobResult> future : futures) {
+                results.add(future.get());
+            }
+            return new BatchReport(results, System.nanoTime() - start);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Batch job listener failed", e.getCause());
+        } finally {
+            futures.forEach(future -> future.cancel(true));
+        }
+    }
+
+    private BatchJobResult runJob(WorkflowRequest request) {
+        long inputBytes = inputSize(request.inputFilePath());
+        long start = System.nanoTime();
+        try {
+            workflowExecutor.execute(request);
+            return new BatchJobResult(request, System.nanoTime() - start, inputBytes, null);
+        } catch (RuntimeException e) {
+            log.error("Batch job failed: {}", request.inputFilePath(), e);
+            return new BatchJobResult(request, System.nanoTime() - start, inputBytes, e);
+        }
+    }
+
+    private static long inputSize(String path) {
+        if (InputChannels.STDIN.equals(path)) {
+            return 0;
+        }
+        try {
+            return Files.size(Path.of(path));
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+}
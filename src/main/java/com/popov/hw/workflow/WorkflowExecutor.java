@@ -1,5 +1,7 @@
 package com.popov.hw.workflow;
 
+import com.popov.hw.exception.InvalidInputException;
+import com.popov.hw.i18n.MessageService;
 import com.popov.hw.operation.OperationExecutorFactory;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
@@ -9,8 +11,17 @@ import org.springframework.stereotype.Component;
 public class WorkflowExecutor {
 
     private final OperationExecutorFactory executorFactory;
+    private final MessageService messageService;
 
+    /**
+     * @throws InvalidInputException if the operation is not available for
+     *                               the algorithm
+     */
     public void execute(WorkflowRequest request) {
+        if (!request.operation().supports(request.algorithm())) {
+            throw new InvalidInputException(messageService.getMessage(
+                    "error.operation.algorithm", request.operation().getOperation(), request.algorithm()));
+        }
         var executor = executorFactory.getExecutor(request.algorithm());
         executor.execute(request);
     }
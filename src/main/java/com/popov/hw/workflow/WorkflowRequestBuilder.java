@@ -1,5 +1,7 @@
 package com.popov.hw.workflow;
 
+import com.popov.hw.exception.InvalidInputException;
+import com.popov.hw.i18n.MessageService;
 import com.popov.hw.input.ParameterCollectorFactory;
 import com.popov.hw.ui.UserInterface;
 import lombok.RequiredArgsConstructor;
@@ -11,10 +13,15 @@ public class WorkflowRequestBuilder {
 
     private final UserInterface userInterface;
     private final ParameterCollectorFactory collectorFactory;
+    private final MessageService messageService;
 
     public WorkflowRequest build() {
         var algorithm = userInterface.selectAlgorithm();
-        var operation = userInterface.selectOperation();
+        var operation = userInterface.selectOperation(algorithm);
+        if (!operation.supports(algorithm)) {
+            throw new InvalidInputException(
+                    messageService.getMessage("error.operation.algorithm", operation.getOperation(), algorithm));
+        }
         var inputFile = userInterface.getInputFilePath();
         var outputFile = userInterface.getOutputFilePath();
 
@@ -0,0 +1,102 @@
+package com.popov.hw.input.file;
+
+import com.popov.hw.exception.FileOperationException;
+import com.popov.hw.exception.InvalidInputException;
+import com.popov.hw.model.ECPoint;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ParameterFileTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void symbolsAndLabelsAreBothRegistered() throws Exception {
+        ParameterFile file = sheet("""
+                RSA Parameters (Lab 1)
+                ======================
+
+                Public key (e): 65537
+                Prime  P : 61
+                Prime q = 53
+                Generator point G = ( 0 , -1 )
+                """);
+
+        assertThat(file.number("e")).isEqualTo(BigInteger.valueOf(65537));
+        assertThat(file.number("public key")).isEqualTo(BigInteger.valueOf(65537));
+        assertThat(file.number("p", "prime p")).isEqualTo(BigInteger.valueOf(61));
+        assertThat(file.number("prime q")).isEqualTo(BigInteger.valueOf(53));
+        assertThat(file.point("generator point g")).isEqualTo(new ECPoint(BigInteger.ZERO, BigInteger.valueOf(-1)));
+    }
+
+    @Test
+    void onlyTheFirstExampleIsRead() throws Exception {
+        ParameterFile file = sheet("""
+                Large prime (p): 467
+                Large prime (p): 469
+
+                Calculated values:
+                Private key (x): 1234
+                """);
+
+        assertThat(file.number("p")).isEqualTo(BigInteger.valueOf(467));
+        assertThatThrownBy(() -> file.number("x", "private key"))
+                .isInstanceOf(InvalidInputException.class)
+                .hasMessage("Parameter file " + file.path() + " does not define 'x'");
+    }
+
+    @Test
+    void malformedValuesAreReportedAsMissing() throws Exception {
+        ParameterFile file = sheet("""
+                Public key (e): 65537x
+                Prime p: 6.1
+                Generator point G = (0, y)
+                """);
+
+        assertThatThrownBy(() -> file.number("e", "public key"))
+                .isInstanceOf(InvalidInputException.class)
+                .hasMessage("Parameter file " + file.path() + " does not define 'e'");
+        assertThatThrownBy(() -> file.number("p", "prime p"))
+                .isInstanceOf(InvalidInputException.class)
+                .hasMessage("Parameter file " + file.path() + " does not define 'p'");
+        assertThatThrownBy(() -> file.point("g", "generator point g"))
+                .isInstanceOf(InvalidInputException.class)
+                .hasMessage("Parameter file " + file.path() + " does not define 'g'");
+    }
+
+    @Test
+    void numbersAndPointsAreNotInterchangeable() throws Exception {
+        ParameterFile file = sheet("""
+                Public key (e): (1, 2)
+                Generator point (g): 5
+                """);
+
+        assertThatThrownBy(() -> file.number("e"))
+                .isInstanceOf(InvalidInputException.class)
+                .hasMessage("Parameter 'e' in " + file.path() + " must be a number, not a point");
+        assertThatThrownBy(() -> file.point("g"))
+                .isInstanceOf(InvalidInputException.class)
+                .hasMessage("Parameter 'g' in " + file.path() + " must be a point (x, y)");
+    }
+
+    @Test
+    void missingFileIsAFileError() {
+        Path missing = dir.resolve("missing.txt");
+
+        assertThatThrownBy(() -> ParameterFile.read(missing))
+                .isInstanceOf(FileOperationException.class)
+                .hasMessageStartingWith("Cannot read parameter file " + missing);
+    }
+
+    private ParameterFile sheet(String text) throws Exception {
+        return ParameterFile.read(Files.writeString(dir.resolve("params.txt"), text));
+    }
+}
@@ -0,0 +1,155 @@
+package com.popov.hw.input.file;
+
+import com.popov.hw.config.CryptoProperties;
+import com.popov.hw.enums.CryptoAlgorithm;
+import com.popov.hw.exception.InvalidInputException;
+import com.popov.hw.model.ECCurve;
+import com.popov.hw.model.ECPoint;
+import com.popov.hw.model.ElGamalParameters;
+import com.popov.hw.model.EllipticCurveParameters;
+import com.popov.hw.model.RabinParameters;
+import com.popov.hw.model.RsaParameters;
+import com.popov.hw.service.ElGamalKeyCalculator;
+import com.popov.hw.service.EllipticCurveKeyCalculator;
+import com.popov.hw.service.RabinKeyCalculator;
+import com.popov.hw.service.RsaKeyCalculator;
+import com.popov.hw.service.crypto.context.KeyContextCache;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static com.popov.hw.enums.CryptoAlgorithm.ELLIPTIC_CURVE;
+import static com.popov.hw.enums.CryptoAlgorithm.EL_GAMAL;
+import static com.popov.hw.enums.CryptoAlgorithm.RABIN;
+import static com.popov.hw.enums.CryptoAlgorithm.RSA;
+import static com.popov.hw.enums.CryptoAlgorithm.SHAMIR;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Validates the sample sheets shipped in {@code test-inputs} and edited
+ * copies of them with a missing or invalid value.
+ */
+class ParameterFileValidatorTest {
+
+    private final ParameterFileValidator validator = newValidator();
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void rsaSampleDerivesThePrivateKey() throws Exception {
+        assertThat(validator.validate(RSA, sample("rsa_params.txt"))).isEqualTo(RsaParameters.builder()
+                .e(BigInteger.valueOf(65537))
+                .p(BigInteger.valueOf(61))
+                .q(BigInteger.valueOf(53))
+                .n(BigInteger.valueOf(3233))
+                .d(BigInteger.valueOf(2753))
+                .build());
+    }
+
+    @Test
+    void elGamalSampleDerivesThePublicKey() throws Exception {
+        assertThat(validator.validate(EL_GAMAL, sample("elgamal_params.txt"))).isEqualTo(ElGamalParameters.builder()
+                .p(BigInteger.valueOf(467))
+                .g(BigInteger.TWO)
+                .x(BigInteger.valueOf(153))
+                .publicKey(BigInteger.valueOf(224))
+                .build());
+    }
+
+    @Test
+    void rabinSampleDerivesTheModulus() throws Exception {
+        assertThat(validator.validate(RABIN, sample("rabin_params.txt"))).isEqualTo(RabinParameters.builder()
+                .p(BigInteger.valueOf(59))
+                .q(BigInteger.valueOf(103))
+                .n(BigInteger.valueOf(6077))
+                .build());
+    }
+
+    @Test
+    void ellipticCurveSampleDerivesThePublicKey() throws Exception {
+        ECPoint base = new ECPoint(BigInteger.ZERO, BigInteger.ONE);
+        assertThat(validator.validate(ELLIPTIC_CURVE, sample("ec_params.txt"))).isEqualTo(EllipticCurveParameters.builder()
+                .privateKey(BigInteger.valueOf(17))
+                .publicKey(new ECPoint(BigInteger.valueOf(440), BigInteger.valueOf(539)))
+                .curve(new ECCurve(BigInteger.valueOf(-1), BigInteger.ONE, BigInteger.valueOf(751), base))
+                .build());
+    }
+
+    @Test
+    void missingValueNamesTheParameter() throws Exception {
+        ParameterFile file = edited("rsa_params.txt", "Prime q: 53", "Prime q: fifty-three");
+
+        assertThatThrownBy(() -> validator.validate(RSA, file))
+                .isInstanceOf(InvalidInputException.class)
+                .hasMessage("Parameter file " + file.path() + " does not define 'q'");
+    }
+
+    @Test
+    void invalidValuesAreRejectedWithTheReason() throws Exception {
+        expectInvalid(RSA, edited("rsa_params.txt", "Prime q: 53", "Prime q: 55"),
+                "q = 55 is not prime in %s");
+        expectInvalid(RSA, edited("rsa_params.txt", "Prime q: 53", "Prime q: 61"),
+                "p and q must be different primes in %s");
+        expectInvalid(RSA, edited("rsa_params.txt", "Public key (e): 65537", "Public key (e): 3"),
+                "e must be coprime to (p - 1)(q - 1) in %s");
+        expectInvalid(EL_GAMAL, edited("elgamal_params.txt", "Primitive root (g): 2", "Primitive root (g): 467"),
+                "g must be in (1, p) in %s");
+        expectInvalid(EL_GAMAL, edited("elgamal_params.txt", "Private key (x): 153", "Private key (x): 466"),
+                "x must be in (0, p - 1) in %s");
+        expectInvalid(RABIN, edited("rabin_params.txt", "Prime q (≡ 3 mod 4): 103", "Prime q (≡ 3 mod 4): 101"),
+                "p and q must be ≡ 3 (mod 4) in %s");
+        expectInvalid(ELLIPTIC_CURVE, edited("ec_params.txt", "Generator point G = (0, 1)", "Generator point G = (0, 2)"),
+                "Base point is not on the curve");
+        expectInvalid(ELLIPTIC_CURVE, edited("ec_params.txt", "Generator point G = (0, 1)", "Generator point G = 1"),
+                "Parameter 'g' in %s must be a point (x, y)");
+    }
+
+    @Test
+    void shamirHasNoSheetFormat() throws Exception {
+        ParameterFile file = sample("rsa_params.txt");
+
+        assertThatThrownBy(() -> validator.validate(SHAMIR, file))
+                .isInstanceOf(InvalidInputException.class)
+                .hasMessage("No parameter file format for SHAMIR");
+    }
+
+    @Test
+    void repeatedSheetIsServedFromTheCache() throws Exception {
+        Object first = validator.validate(RSA, sample("rsa_params.txt"));
+
+        assertThat(validator.validate(RSA, sample("rsa_params.txt"))).isSameAs(first);
+        assertThat(validator.validate(RSA, edited("rsa_params.txt", "Prime q: 53", "Prime q: 59")))
+                .isNotEqualTo(first);
+    }
+
+    private void expectInvalid(CryptoAlgorithm algorithm, ParameterFile file, String message) {
+        assertThatThrownBy(() -> validator.validate(algorithm, file))
+                .isInstanceOf(InvalidInputException.class)
+                .hasMessage(message.formatted(file.path()));
+    }
+
+    private static ParameterFile sample(String name) throws Exception {
+        return ParameterFile.read(Path.of(ParameterFileValidatorTest.class.getResource("/test-inputs/" + name).toURI()));
+    }
+
+    private ParameterFile edited(String name, String line, String replacement) throws Exception {
+        String text = Files.readString(sample(name).path());
+        assertThat(text).contains(line);
+        return ParameterFile.read(Files.writeString(dir.resolve(name), text.replace(line, replacement)));
+    }
+
+    private static ParameterFileValidator newValidator() {
+        KeyContextCache cache = new KeyContextCache(new CryptoProperties(0, 0, null, false, 0, false, 0, 0, 0));
+        return new ParameterFileValidator(
+                new RsaKeyCalculator(cache),
+                new ElGamalKeyCalculator(cache),
+                new RabinKeyCalculator(),
+                new EllipticCurveKeyCalculator(cache),
+                cache);
+    }
+}
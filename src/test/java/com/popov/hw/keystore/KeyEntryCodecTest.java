@@ -0,0 +1,122 @@
+package com.popov.hw.keystore;
+
+import com.popov.hw.config.CryptoProperties;
+import com.popov.hw.exception.FileOperationException;
+import com.popov.hw.model.ECCurve;
+import com.popov.hw.model.ECPoint;
+import com.popov.hw.model.ElGamalParameters;
+import com.popov.hw.model.EllipticCurveParameters;
+import com.popov.hw.model.RsaParameters;
+import com.popov.hw.service.crypto.context.ElGamalKeyContext;
+import com.popov.hw.service.crypto.context.KeyContextCache;
+import com.popov.hw.service.crypto.context.RsaKeyContext;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+
+import static com.popov.hw.enums.CryptoAlgorithm.ELLIPTIC_CURVE;
+import static com.popov.hw.enums.CryptoAlgorithm.EL_GAMAL;
+import static com.popov.hw.enums.CryptoAlgorithm.RSA;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class KeyEntryCodecTest {
+
+    private static final BigInteger E = BigInteger.valueOf(65537);
+
+    @Test
+    void rsaEntryRestoresWorkingCrtContext() throws Exception {
+        RsaParameters key = rsaKey(512, new Random(1));
+        byte[] payload = new KeyEntryCodec(newCache()).encode(RSA, key);
+
+        KeyContextCache cache = newCache();
+        assertThat(new KeyEntryCodec(cache).decode(RSA, ByteBuffer.wrap(payload))).isEqualTo(key);
+
+        RsaKeyContext context = cache.get(RsaKeyContext.class, key, () -> {
+            throw new AssertionError("context was not restored");
+        });
+        assertThat(context.isCrtEnabled()).isTrue();
+        BigInteger c = new BigInteger(500, new Random(2));
+        assertThat(context.decrypt(c)).isEqualTo(c.modPow(key.d(), key.n()));
+    }
+
+    @Test
+    void staleCrtPartsAreRejected() throws Exception {
+        Random random = new Random(3);
+        RsaParameters key = rsaKey(512, random);
+        RsaParameters other = rsaKey(512, random);
+        KeyContextCache stale = newCache();
+        stale.put(RsaKeyContext.class, key, RsaKeyContext.from(other));
+        byte[] payload = new KeyEntryCodec(stale).encode(RSA, key);
+
+        KeyContextCache cache = newCache();
+        assertThatThrownBy(() -> new KeyEntryCodec(cache).decode(RSA, ByteBuffer.wrap(payload)))
+                .isInstanceOf(FileOperationException.class);
+        assertThat(cache.metrics().size()).isZero();
+    }
+
+    @Test
+    void trailingBytesLeaveNothingCached() throws Exception {
+        RsaParameters key = rsaKey(512, new Random(4));
+        byte[] payload = new KeyEntryCodec(newCache()).encode(RSA, key);
+        byte[] padded = Arrays.copyOf(payload, payload.length + 1);
+
+        KeyContextCache cache = newCache();
+        assertThatThrownBy(() -> new KeyEntryCodec(cache).decode(RSA, ByteBuffer.wrap(padded)))
+                .isInstanceOf(FileOperationException.class);
+        assertThat(cache.metrics().size()).isZero();
+    }
+
+    @Test
+    void elGamalTablesForAnotherKeyAreRejected() throws Exception {
+        BigInteger p = BigInteger.valueOf(467);
+        ElGamalParameters key = elGamalKey(p, BigInteger.TWO, BigInteger.valueOf(153));
+        ElGamalParameters other = elGamalKey(p, BigInteger.valueOf(5), BigInteger.valueOf(153));
+        KeyContextCache stale = newCache();
+        stale.put(ElGamalKeyContext.class, key, ElGamalKeyContext.from(other));
+        byte[] payload = new KeyEntryCodec(stale).encode(EL_GAMAL, key);
+
+        KeyContextCache cache = newCache();
+        assertThatThrownBy(() -> new KeyEntryCodec(cache).decode(EL_GAMAL, ByteBuffer.wrap(payload)))
+                .isInstanceOf(FileOperationException.class);
+        assertThat(cache.metrics().size()).isZero();
+    }
+
+    @Test
+    void ellipticCurveEntryRoundTrips() throws Exception {
+        ECPoint base = new ECPoint(BigInteger.ZERO, BigInteger.ONE);
+        ECCurve curve = new ECCurve(BigInteger.valueOf(-1), BigInteger.ONE, BigInteger.valueOf(751), base);
+        EllipticCurveParameters key = EllipticCurveParameters.builder()
+                .privateKey(BigInteger.valueOf(17))
+                .publicKey(new ECPoint(BigInteger.valueOf(440), BigInteger.valueOf(539)))
+                .curve(curve)
+                .build();
+        byte[] payload = new KeyEntryCodec(newCache()).encode(ELLIPTIC_CURVE, key);
+
+        KeyContextCache cache = newCache();
+        assertThat(new KeyEntryCodec(cache).decode(ELLIPTIC_CURVE, ByteBuffer.wrap(payload))).isEqualTo(key);
+        assertThat(cache.metrics().size()).isEqualTo(2);
+    }
+
+    private static KeyContextCache newCache() {
+        return new KeyContextCache(new CryptoProperties(0, 0, null, false, 0, false, 0, 0, 0));
+    }
+
+    private static ElGamalParameters elGamalKey(BigInteger p, BigInteger g, BigInteger x) {
+        return ElGamalParameters.builder().p(p).g(g).x(x).publicKey(g.modPow(x, p)).build();
+    }
+
+    private static RsaParameters rsaKey(int modulusBits, Random random) {
+        while (true) {
+            BigInteger p = BigInteger.probablePrime(modulusBits / 2, random);
+            BigInteger q = BigInteger.probablePrime(modulusBits / 2, random);
+            BigInteger phi = p.subtract(BigInteger.ONE).multiply(q.subtract(BigInteger.ONE));
+            if (!p.equals(q) && phi.gcd(E).equals(BigInteger.ONE)) {
+                return RsaParameters.builder().e(E).p(p).q(q).n(p.multiply(q)).d(E.modInverse(phi)).build();
+            }
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.popov.hw.math.ec;
+
+import com.popov.hw.model.ECCurve;
+import com.popov.hw.model.ECPoint;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Checks scalar multiplication against plain affine double-and-add, in
+ * particular for points of small order, whose odd multiples and table
+ * entries include the point at infinity.
+ */
+class ECMathTest {
+
+    private static final BigInteger THREE = BigInteger.valueOf(3);
+    private static final BigInteger FOUR = BigInteger.valueOf(4);
+
+    @Test
+    void pointOfOrderThreeWrapsToInfinity() {
+        ECCurve curve = new ECCurve(BigInteger.ZERO, BigInteger.ONE, BigInteger.valueOf(751), null);
+        ECMath math = new ECMath(curve);
+        ECPoint point = new ECPoint(BigInteger.ZERO, BigInteger.ONE);
+        FixedBaseTable table = new FixedBaseTable(math, point, 16);
+
+        assertThat(math.multiply(point, THREE)).isEqualTo(ECPoint.INFINITY);
+        assertThat(table.multiply(THREE)).isEqualTo(ECPoint.INFINITY);
+        for (int k = 0; k < 300; k++) {
+            BigInteger scalar = BigInteger.valueOf(k);
+            ECPoint expected = Reference.multiply(curve, point, scalar);
+            assertThat(math.multiply(point, scalar)).as("k = %d", k).isEqualTo(expected);
+            assertThat(table.multiply(scalar)).as("k = %d", k).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void randomSmallCurvesMatchAffineArithmetic() {
+        Random random = new Random(16);
+        for (int c = 0; c < 40; c++) {
+            BigInteger p = primeThreeModFour(16, random);
+            BigInteger a = new BigInteger(16, random).mod(p);
+            BigInteger b = new BigInteger(16, random).mod(p);
+            ECCurve curve = new ECCurve(a, b, p, null);
+            if (FOUR.multiply(a.pow(3)).add(BigInteger.valueOf(27).multiply(b.pow(2))).mod(p).signum() == 0) {
+                continue;
+            }
+            ECMath math = new ECMath(curve);
+            ECPoint point = randomPoint(curve, random);
+            FixedBaseTable table = new FixedBaseTable(math, point, p.bitLength() + 2);
+
+            for (int k = 0; k < 50; k++) {
+                BigInteger scalar = new BigInteger(p.bitLength() + 1, random);
+                ECPoint expected = Reference.multiply(curve, point, scalar);
+                assertThat(math.multiply(point, scalar)).as("%s, k = %s", curve, scalar).isEqualTo(expected);
+                assertThat(table.multiply(scalar)).as("%s, k = %s", curve, scalar).isEqualTo(expected);
+            }
+        }
+    }
+
+    @Test
+    void restoredTableMultipliesLikeBuiltOne() {
+        ECCurve curve = new ECCurve(BigInteger.ZERO, BigInteger.ONE, BigInteger.valueOf(751), null);
+        ECMath math = new ECMath(curve);
+        ECPoint point = new ECPoint(BigInteger.ZERO, BigInteger.ONE);
+        FixedBaseTable table = new FixedBaseTable(math, point, 16);
+        FixedBaseTable restored = FixedBaseTable.fromLimbs(math, point, 16, table.toLimbs());
+
+        for (int k = 0; k < 100; k++) {
+            BigInteger scalar = BigInteger.valueOf(k);
+            assertThat(restored.multiply(scalar)).isEqualTo(table.multiply(scalar));
+        }
+    }
+
+    @Test
+    void tableForAnotherPointIsRejected() {
+        ECCurve curve = new ECCurve(BigInteger.ZERO, BigInteger.ONE, BigInteger.valueOf(751), null);
+        ECMath math = new ECMath(curve);
+        ECPoint point = new ECPoint(BigInteger.ZERO, BigInteger.ONE);
+        long[] limbs = new FixedBaseTable(math, point, 16).toLimbs();
+
+        assertThatThrownBy(() -> FixedBaseTable.fromLimbs(math, math.negate(point), 16, limbs))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static BigInteger primeThreeModFour(int bits, Random random) {
+        while (true) {
+            BigInteger p = BigInteger.probablePrime(bits, random);
+            if (p.mod(FOUR).equals(THREE)) {
+                return p;
+            }
+        }
+    }
+
+    private static ECPoint randomPoint(ECCurve curve, Random random) {
+        BigInteger p = curve.p();
+        while (true) {
+            BigInteger x = new BigInteger(p.bitLength(), random).mod(p);
+            BigInteger rhs = x.pow(3).add(curve.a().multiply(x)).add(curve.b()).mod(p);
+            BigInteger y = rhs.modPow(p.add(BigInteger.ONE).shiftRight(2), p);
+            if (y.multiply(y).mod(p).equals(rhs)) {
+                return new ECPoint(x, y);
+            }
+        }
+    }
+
+    /**
+     * Textbook affine chord-and-tangent arithmetic.
+     */
+    private static final class Reference {
+
+        static ECPoint multiply(ECCurve curve, ECPoint point, BigInteger scalar) {
+            ECPoint result = ECPoint.INFINITY;
+            for (int i = scalar.bitLength() - 1; i >= 0; i--) {
+                result = add(curve, result, result);
+                if (scalar.testBit(i)) {
+                    result = add(curve, result, point);
+                }
+            }
+            return result;
+        }
+
+        static ECPoint add(ECCurve curve, ECPoint p1, ECPoint p2) {
+            if (p1.isInfinity()) return p2;
+            if (p2.isInfinity()) return p1;
+            BigInteger p = curve.p();
+            BigInteger lambda;
+            if (p1.x().equals(p2.x())) {
+                if (p1.y().add(p2.y()).mod(p).signum() == 0) {
+                    return ECPoint.INFINITY;
+                }
+                lambda = THREE.multiply(p1.x().pow(2)).add(curve.a())
+                        .multiply(p1.y().shiftLeft(1).modInverse(p)).mod(p);
+            } else {
+                lambda = p2.y().subtract(p1.y()).multiply(p2.x().subtract(p1.x()).modInverse(p)).mod(p);
+            }
+            BigInteger x = lambda.pow(2).subtract(p1.x()).subtract(p2.x()).mod(p);
+            BigInteger y = lambda.multiply(p1.x().subtract(x)).subtract(p1.y()).mod(p);
+            return new ECPoint(x, y);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.popov.hw.math.modular;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.math.BigInteger;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BarrettReducerTest {
+
+    @Test
+    void smallAndSpecialModuliMatchMod() {
+        for (BigInteger p : List.of(
+                BigInteger.ONE,
+                BigInteger.TWO,
+                BigInteger.valueOf(3),
+                BigInteger.valueOf(467),
+                BigInteger.ONE.shiftLeft(64),
+                BigInteger.ONE.shiftLeft(61).subtract(BigInteger.ONE),
+                BigInteger.ONE.shiftLeft(64).add(BigInteger.ONE))) {
+            checkEdges(p);
+            BarrettReducer reducer = new BarrettReducer(p);
+            BigInteger square = p.multiply(p);
+            Random random = new Random(p.longValue());
+            for (int i = 0; i < 500; i++) {
+                BigInteger x = new BigInteger(square.bitLength(), random);
+                if (x.compareTo(square) < 0) {
+                    assertThat(reducer.reduce(x)).as("%s mod %s", x, p).isEqualTo(x.mod(p));
+                }
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {127, 256, 1024, 2048})
+    void randomOperandsMatchMod(int bits) {
+        Random random = new Random(bits);
+        BigInteger p = BigInteger.probablePrime(bits, random);
+        BarrettReducer reducer = new BarrettReducer(p);
+        checkEdges(p);
+
+        for (int i = 0; i < 200; i++) {
+            BigInteger a = new BigInteger(bits, random).mod(p);
+            BigInteger b = new BigInteger(bits, random).mod(p);
+            assertThat(reducer.multiply(a, b)).isEqualTo(a.multiply(b).mod(p));
+            assertThat(reducer.reduce(a.multiply(b))).isEqualTo(a.multiply(b).mod(p));
+        }
+    }
+
+    @Test
+    void nonPositiveModulusIsRejected() {
+        assertThatThrownBy(() -> new BarrettReducer(BigInteger.ZERO)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new BarrettReducer(BigInteger.valueOf(-7))).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /**
+     * 0, 1, p - 1 and (p - 1)^2, the largest value {@code reduce} accepts
+     * from {@code multiply}, plus p^2 - 1.
+     */
+    private static void checkEdges(BigInteger p) {
+        BarrettReducer reducer = new BarrettReducer(p);
+        BigInteger max = p.subtract(BigInteger.ONE);
+        for (BigInteger x : List.of(BigInteger.ZERO, BigInteger.ONE.min(max), max, max.multiply(max),
+                p.multiply(p).subtract(BigInteger.ONE), p)) {
+            assertThat(reducer.reduce(x)).as("%s mod %s", x, p).isEqualTo(x.mod(p));
+        }
+        for (BigInteger a : List.of(BigInteger.ZERO, max)) {
+            for (BigInteger b : List.of(BigInteger.ZERO, BigInteger.ONE.min(max), max)) {
+                assertThat(reducer.multiply(a, b)).as("%s * %s mod %s", a, b, p).isEqualTo(a.multiply(b).mod(p));
+            }
+        }
+    }
+}
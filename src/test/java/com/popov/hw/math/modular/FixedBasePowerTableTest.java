@@ -0,0 +1,78 @@
+package com.popov.hw.math.modular;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FixedBasePowerTableTest {
+
+    @ParameterizedTest
+    @ValueSource(ints = {9, 64, 256, 1024})
+    void powersMatchModPow(int bits) {
+        Random random = new Random(bits);
+        BigInteger p = BigInteger.probablePrime(bits, random);
+        BigInteger pMinusOne = p.subtract(BigInteger.ONE);
+
+        for (BigInteger base : List.of(BigInteger.TWO, pMinusOne, new BigInteger(bits, random).mod(p), p.add(BigInteger.TWO))) {
+            FixedBasePowerTable table = new FixedBasePowerTable(base, p, bits);
+            for (BigInteger k : List.of(BigInteger.ZERO, BigInteger.ONE, p.subtract(BigInteger.TWO), pMinusOne)) {
+                assertThat(table.pow(k)).as("%s^%s mod %s", base, k, p).isEqualTo(base.modPow(k, p));
+            }
+            for (int i = 0; i < 50; i++) {
+                BigInteger k = new BigInteger(random.nextInt(bits + 1), random);
+                assertThat(table.pow(k)).as("%s^%s mod %s", base, k, p).isEqualTo(base.modPow(k, p));
+            }
+        }
+    }
+
+    @Test
+    void zeroBaseAndExponentZeroGiveOne() {
+        BigInteger p = BigInteger.valueOf(467);
+        FixedBasePowerTable table = new FixedBasePowerTable(BigInteger.ZERO, p, p.bitLength());
+
+        assertThat(table.pow(BigInteger.ZERO)).isEqualTo(BigInteger.ONE);
+        assertThat(table.pow(BigInteger.valueOf(465))).isEqualTo(BigInteger.ZERO);
+    }
+
+    /**
+     * Exponents longer than the table and negative ones fall back to
+     * {@link BigInteger#modPow}.
+     */
+    @Test
+    void exponentsOutsideTheTableFallBack() {
+        BigInteger p = BigInteger.valueOf(467);
+        BigInteger g = BigInteger.TWO;
+        FixedBasePowerTable table = new FixedBasePowerTable(g, p, 8);
+
+        BigInteger wide = BigInteger.ONE.shiftLeft(100).add(BigInteger.valueOf(12345));
+        assertThat(table.pow(wide)).isEqualTo(g.modPow(wide, p));
+        assertThat(table.pow(BigInteger.valueOf(-3))).isEqualTo(g.modPow(BigInteger.valueOf(-3), p));
+        assertThat(table.pow(p.subtract(BigInteger.TWO))).isEqualTo(g.modPow(p.subtract(BigInteger.TWO), p));
+    }
+
+    @Test
+    void restoredTablePowersLikeBuiltOne() {
+        Random random = new Random(1);
+        BigInteger p = BigInteger.probablePrime(256, random);
+        BigInteger g = BigInteger.valueOf(5);
+        FixedBasePowerTable table = new FixedBasePowerTable(g, p, 256);
+        FixedBasePowerTable restored = FixedBasePowerTable.fromBytes(
+                g, p, 256, table.window(), ByteBuffer.wrap(table.toBytes()));
+
+        for (int i = 0; i < 50; i++) {
+            BigInteger k = new BigInteger(256, random);
+            assertThat(restored.pow(k)).isEqualTo(table.pow(k));
+        }
+        assertThatThrownBy(() -> FixedBasePowerTable.fromBytes(
+                BigInteger.valueOf(7), p, 256, table.window(), ByteBuffer.wrap(table.toBytes())))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,148 @@
+package com.popov.hw.service.crypto.container;
+
+import com.popov.hw.config.CryptoProperties;
+import com.popov.hw.exception.CryptoOperationException;
+import com.popov.hw.exception.FileOperationException;
+import com.popov.hw.model.RabinParameters;
+import com.popov.hw.model.RsaParameters;
+import com.popov.hw.service.crypto.RabinCryptoService;
+import com.popov.hw.service.crypto.RsaCryptoService;
+import com.popov.hw.service.crypto.context.KeyContextCache;
+import com.popov.hw.service.crypto.pipeline.BlockCipherEngine;
+import com.popov.hw.service.crypto.pipeline.MappedBlockProcessor;
+import com.popov.hw.service.crypto.pipeline.ParallelBlockPipeline;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Encrypts files into the container format and back through the streaming
+ * and the memory-mapped path, and checks that a container is refused by the
+ * wrong algorithm, the wrong key and when it is cut short.
+ */
+class CiphertextContainerTest {
+
+    private static final BigInteger E = BigInteger.valueOf(65537);
+    private static final ForkJoinPool POOL = new ForkJoinPool(2);
+
+    private static final RsaParameters KEY = rsaKey(512, new Random(1));
+    private static final RsaParameters OTHER_KEY = rsaKey(512, new Random(2));
+
+    @TempDir
+    Path dir;
+
+    @AfterAll
+    static void shutdown() {
+        POOL.shutdown();
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void emptyOneByteAndLeadingZeroInputsRoundTrip(boolean memoryMapped) throws Exception {
+        RsaCryptoService rsa = rsa(memoryMapped);
+        byte[] leadingZeros = new byte[300];
+        new Random(3).nextBytes(leadingZeros);
+        Arrays.fill(leadingZeros, 0, 70, (byte) 0);
+        Arrays.fill(leadingZeros, 130, 135, (byte) 0);
+
+        for (byte[] data : new byte[][]{{}, {42}, {0}, {0, 0, 0, 7}, leadingZeros}) {
+            Path plain = write("plain.bin", data);
+            rsa.encrypt(plain.toString(), dir.resolve("cipher.bin").toString(), KEY);
+            rsa.decrypt(dir.resolve("cipher.bin").toString(), dir.resolve("out.bin").toString(), KEY);
+
+            assertThat(Files.readAllBytes(dir.resolve("out.bin"))).as("%d bytes", data.length).isEqualTo(data);
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void containerOfAnotherAlgorithmIsRejected(boolean memoryMapped) throws Exception {
+        Path cipher = encrypt(new byte[]{1, 2, 3});
+        RabinParameters rabin = RabinParameters.builder()
+                .p(BigInteger.valueOf(59))
+                .q(BigInteger.valueOf(103))
+                .n(BigInteger.valueOf(59 * 103))
+                .build();
+        RabinCryptoService service = new RabinCryptoService(engine(memoryMapped), properties(memoryMapped), newCache());
+
+        assertThatThrownBy(() -> service.decrypt(cipher.toString(), dir.resolve("out.bin").toString(), rabin))
+                .isInstanceOf(CryptoOperationException.class)
+                .hasMessage("Ciphertext was produced by RSA, not RABIN");
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void containerOfAnotherKeyIsRejected(boolean memoryMapped) throws Exception {
+        Path cipher = encrypt(new byte[]{1, 2, 3});
+
+        assertThatThrownBy(() -> rsa(memoryMapped).decrypt(cipher.toString(), dir.resolve("out.bin").toString(), OTHER_KEY))
+                .isInstanceOf(CryptoOperationException.class)
+                .hasMessage("Ciphertext was encrypted with a different key");
+    }
+
+    @Test
+    void truncatedContainerIsRejected() throws Exception {
+        Path cipher = encrypt(new byte[200]);
+        byte[] bytes = Files.readAllBytes(cipher);
+        Path truncated = write("truncated.bin", Arrays.copyOf(bytes, bytes.length - 1));
+
+        assertThatThrownBy(() -> rsa(false).decrypt(truncated.toString(), dir.resolve("out.bin").toString(), KEY))
+                .isInstanceOf(FileOperationException.class)
+                .hasMessage("Truncated ciphertext frame");
+        assertThatThrownBy(() -> rsa(true).decrypt(truncated.toString(), dir.resolve("out.bin").toString(), KEY))
+                .isInstanceOf(FileOperationException.class)
+                .hasMessage("Container size does not match its header");
+    }
+
+    private Path encrypt(byte[] data) throws Exception {
+        Path plain = write("plain.bin", data);
+        Path cipher = dir.resolve("cipher.bin");
+        rsa(false).encrypt(plain.toString(), cipher.toString(), KEY);
+        return cipher;
+    }
+
+    private Path write(String name, byte[] data) throws Exception {
+        return Files.write(dir.resolve(name), data);
+    }
+
+    private static RsaCryptoService rsa(boolean memoryMapped) {
+        return new RsaCryptoService(engine(memoryMapped), newCache());
+    }
+
+    private static BlockCipherEngine engine(boolean memoryMapped) {
+        CryptoProperties properties = properties(memoryMapped);
+        return new BlockCipherEngine(
+                new ParallelBlockPipeline(POOL, properties), new MappedBlockProcessor(POOL), properties);
+    }
+
+    private static CryptoProperties properties(boolean memoryMapped) {
+        return new CryptoProperties(2, 0, null, memoryMapped, 0, false, 0, 0, 0);
+    }
+
+    private static KeyContextCache newCache() {
+        return new KeyContextCache(properties(false));
+    }
+
+    private static RsaParameters rsaKey(int modulusBits, Random random) {
+        while (true) {
+            BigInteger p = BigInteger.probablePrime(modulusBits / 2, random);
+            BigInteger q = BigInteger.probablePrime(modulusBits / 2, random);
+            BigInteger phi = p.subtract(BigInteger.ONE).multiply(q.subtract(BigInteger.ONE));
+            if (!p.equals(q) && phi.gcd(E).equals(BigInteger.ONE)) {
+                return RsaParameters.builder().e(E).p(p).q(q).n(p.multiply(q)).d(E.modInverse(phi)).build();
+            }
+        }
+    }
+}
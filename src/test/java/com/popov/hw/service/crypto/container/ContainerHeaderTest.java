@@ -0,0 +1,78 @@
+package com.popov.hw.service.crypto.container;
+
+import com.popov.hw.exception.FileOperationException;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+
+import static com.popov.hw.enums.CryptoAlgorithm.RABIN;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ContainerHeaderTest {
+
+    @Test
+    void headerRoundTrips() {
+        byte[] fingerprint = KeyFingerprint.of(BigInteger.valueOf(6077));
+        ContainerHeader header = new ContainerHeader(
+                RABIN, ContainerHeader.FLAG_RABIN_REDUNDANCY, fingerprint, 3, 13, 1, (1L << 40) + 5);
+
+        ByteBuffer buffer = header.toByteBuffer();
+        assertThat(buffer.remaining()).isEqualTo(ContainerHeader.SIZE);
+
+        ContainerHeader read = ContainerHeader.read(buffer);
+        assertThat(read.algorithm()).isEqualTo(RABIN);
+        assertThat(read.flags()).isEqualTo(ContainerHeader.FLAG_RABIN_REDUNDANCY);
+        assertThat(read.keyFingerprint()).isEqualTo(fingerprint);
+        assertThat(read.plainBlockSize()).isEqualTo(3);
+        assertThat(read.elementWidth()).isEqualTo(13);
+        assertThat(read.elementsPerBlock()).isEqualTo(1);
+        assertThat(read.originalLength()).isEqualTo((1L << 40) + 5);
+        assertThat(buffer.hasRemaining()).isFalse();
+    }
+
+    @Test
+    void blockLayoutFollowsTheHeader() {
+        ContainerHeader header = new ContainerHeader(RABIN, 0, new byte[KeyFingerprint.LENGTH], 4, 5, 2, 9);
+
+        assertThat(header.frameSize()).isEqualTo(10);
+        assertThat(header.blockCount()).isEqualTo(3);
+        assertThat(header.blockOffset(1)).isEqualTo(ContainerHeader.SIZE + 10);
+        assertThat(header.containerSize()).isEqualTo(ContainerHeader.SIZE + 30);
+    }
+
+    @Test
+    void foreignOrCorruptedHeadersAreRejected() {
+        ContainerHeader header = new ContainerHeader(RABIN, 0, new byte[KeyFingerprint.LENGTH], 4, 5, 1, 9);
+
+        byte[] wrongMagic = header.toByteBuffer().array();
+        wrongMagic[0] = 'X';
+        assertThatThrownBy(() -> ContainerHeader.read(ByteBuffer.wrap(wrongMagic)))
+                .isInstanceOf(FileOperationException.class)
+                .hasMessage("Not a ciphertext container");
+
+        byte[] wrongVersion = header.toByteBuffer().array();
+        wrongVersion[4] = 2;
+        assertThatThrownBy(() -> ContainerHeader.read(ByteBuffer.wrap(wrongVersion)))
+                .isInstanceOf(FileOperationException.class)
+                .hasMessage("Unsupported container version: 2");
+
+        ByteBuffer zeroBlockSize = new ContainerHeader(RABIN, 0, new byte[KeyFingerprint.LENGTH], 0, 5, 1, 9)
+                .toByteBuffer();
+        assertThatThrownBy(() -> ContainerHeader.read(zeroBlockSize))
+                .isInstanceOf(FileOperationException.class)
+                .hasMessage("Corrupted container header");
+    }
+
+    @Test
+    void fingerprintSeparatesComponents() {
+        byte[] fingerprint = KeyFingerprint.of(BigInteger.valueOf(3233), BigInteger.valueOf(17));
+
+        assertThat(fingerprint).hasSize(KeyFingerprint.LENGTH);
+        assertThat(KeyFingerprint.of(BigInteger.valueOf(3233), BigInteger.valueOf(17))).isEqualTo(fingerprint);
+        assertThat(KeyFingerprint.of(BigInteger.valueOf(3233), BigInteger.valueOf(65537))).isNotEqualTo(fingerprint);
+        assertThat(KeyFingerprint.of(BigInteger.valueOf(0x0102), BigInteger.valueOf(0x03)))
+                .isNotEqualTo(KeyFingerprint.of(BigInteger.valueOf(0x01), BigInteger.valueOf(0x0203)));
+    }
+}
@@ -0,0 +1,69 @@
+package com.popov.hw.service.crypto.container;
+
+import com.popov.hw.exception.CryptoOperationException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FixedWidthCodecTest {
+
+    @Test
+    void nullIsStoredAsAllOnes() {
+        byte[] target = new byte[6];
+        FixedWidthCodec.encode(null, target, 1, 4);
+
+        assertThat(target).containsExactly(0, 0xFF, 0xFF, 0xFF, 0xFF, 0);
+        assertThat(FixedWidthCodec.decode(target, 1, 4)).isNull();
+    }
+
+    @Test
+    void allOnesBelowTheWidthIsAValue() {
+        byte[] target = new byte[4];
+        FixedWidthCodec.encode(BigInteger.valueOf(0xFFFFFF), target, 0, 4);
+
+        assertThat(target).containsExactly(0, 0xFF, 0xFF, 0xFF);
+        assertThat(FixedWidthCodec.decode(target, 0, 4)).isEqualTo(BigInteger.valueOf(0xFFFFFF));
+    }
+
+    /**
+     * Covers both the {@code long} path (below 2^63) and the
+     * {@link BigInteger#toByteArray()} path, including values whose top bit
+     * is set and need no sign byte. All ones at full width is the
+     * {@code null} marker and is skipped.
+     */
+    @ParameterizedTest
+    @ValueSource(ints = {1, 7, 8, 9, 16, 33})
+    void valuesRoundTripZeroPadded(int width) {
+        Random random = new Random(width);
+        byte[] target = new byte[width + 2];
+        BigInteger absent = BigInteger.ONE.shiftLeft(8 * width).subtract(BigInteger.ONE);
+        for (int i = 0; i < 200; i++) {
+            BigInteger value = new BigInteger(random.nextInt(8 * width + 1), random);
+            if (value.equals(absent)) {
+                continue;
+            }
+            FixedWidthCodec.encode(value, target, 1, width);
+            assertThat(FixedWidthCodec.decode(target, 1, width)).as("value = %s", value).isEqualTo(value);
+        }
+        FixedWidthCodec.encode(BigInteger.ZERO, target, 1, width);
+        assertThat(target).containsOnly(0);
+    }
+
+    @Test
+    void oversizedOrNegativeValuesAreRejected() {
+        byte[] target = new byte[16];
+
+        assertThatThrownBy(() -> FixedWidthCodec.encode(BigInteger.valueOf(0x10000), target, 0, 2))
+                .isInstanceOf(CryptoOperationException.class);
+        assertThatThrownBy(() -> FixedWidthCodec.encode(BigInteger.ONE.shiftLeft(72), target, 0, 9))
+                .isInstanceOf(CryptoOperationException.class);
+        assertThatThrownBy(() -> FixedWidthCodec.encode(BigInteger.valueOf(-1), target, 0, 16))
+                .isInstanceOf(CryptoOperationException.class);
+    }
+}
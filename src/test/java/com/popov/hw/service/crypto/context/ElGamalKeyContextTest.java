@@ -0,0 +1,77 @@
+package com.popov.hw.service.crypto.context;
+
+import com.popov.hw.model.ElGamalParameters;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Decryption takes {@code a^x} and an inversion for a private key much
+ * shorter than p and {@code a^(p-1-x)} otherwise; both are checked against
+ * the textbook {@code b * (a^x)^-1 mod p} on the same ciphertexts.
+ */
+class ElGamalKeyContextTest {
+
+    private static final BigInteger G = BigInteger.TWO;
+
+    @Test
+    void shortAndFullLengthKeysDecryptLikeTheTextbook() {
+        Random random = new Random(256);
+        BigInteger p = BigInteger.probablePrime(256, random);
+        BigInteger pMinusOne = p.subtract(BigInteger.ONE);
+
+        List<BigInteger> keys = List.of(
+                BigInteger.ONE,
+                BigInteger.valueOf(12345),
+                new BigInteger(128, random),
+                new BigInteger(255, random),
+                pMinusOne.subtract(BigInteger.valueOf(12345)),
+                p.subtract(BigInteger.TWO));
+        List<BigInteger[]> ciphertexts = ciphertexts(p, random);
+
+        for (BigInteger x : keys) {
+            ElGamalKeyContext context = ElGamalKeyContext.from(key(p, x));
+            for (BigInteger[] c : ciphertexts) {
+                BigInteger textbook = c[1].multiply(c[0].modPow(x, p).modInverse(p)).mod(p);
+                assertThat(context.decrypt(c[0], c[1])).as("x = %s, a = %s", x, c[0]).isEqualTo(textbook);
+            }
+        }
+    }
+
+    @Test
+    void decryptionInvertsEncryption() {
+        BigInteger p = BigInteger.valueOf(467);
+        for (long x = 1; x < 466; x++) {
+            ElGamalKeyContext context = ElGamalKeyContext.from(key(p, BigInteger.valueOf(x)));
+            for (long m = 0; m < 467; m += 29) {
+                BigInteger[] c = context.encrypt(BigInteger.valueOf(m), BigInteger.valueOf(m * 7 % 465 + 1));
+                assertThat(context.decrypt(c[0], c[1])).as("x = %d, m = %d", x, m).isEqualTo(BigInteger.valueOf(m));
+            }
+        }
+    }
+
+    private static ElGamalParameters key(BigInteger p, BigInteger x) {
+        return ElGamalParameters.builder().p(p).g(G).x(x).publicKey(G.modPow(x, p)).build();
+    }
+
+    /**
+     * Random pairs plus {@code a} = 1 and p - 1.
+     */
+    private static List<BigInteger[]> ciphertexts(BigInteger p, Random random) {
+        List<BigInteger[]> pairs = new ArrayList<>();
+        pairs.add(new BigInteger[]{BigInteger.ONE, BigInteger.valueOf(42)});
+        pairs.add(new BigInteger[]{p.subtract(BigInteger.ONE), p.subtract(BigInteger.ONE)});
+        while (pairs.size() < 32) {
+            BigInteger a = new BigInteger(p.bitLength(), random).mod(p);
+            if (a.signum() > 0) {
+                pairs.add(new BigInteger[]{a, new BigInteger(p.bitLength(), random).mod(p)});
+            }
+        }
+        return pairs;
+    }
+}
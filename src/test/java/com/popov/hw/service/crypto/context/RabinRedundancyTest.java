@@ -0,0 +1,87 @@
+package com.popov.hw.service.crypto.context;
+
+import com.popov.hw.exception.CryptoOperationException;
+import com.popov.hw.model.RabinParameters;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Uses an 81-bit modulus, so a tagged two-byte block fits into it.
+ */
+class RabinRedundancyTest {
+
+    private static final BigInteger P = BigInteger.valueOf(1099511627791L);
+    private static final BigInteger Q = BigInteger.valueOf(1374389534747L);
+    private static final RabinKeyContext CONTEXT = RabinKeyContext.from(
+            RabinParameters.builder().p(P).q(Q).n(P.multiply(Q)).build());
+
+    @Test
+    void taggedRootIsSelectedWhenItIsNotTheSmallest() {
+        BigInteger n = CONTEXT.n();
+        int notSmallest = 0;
+        for (int m = 0; m < 1 << 16; m += 97) {
+            BigInteger message = BigInteger.valueOf(m);
+            BigInteger tagged = RabinRedundancy.tag(message);
+            BigInteger c = tagged.modPow(BigInteger.TWO, n);
+
+            assertThat(CONTEXT.roots(c)).contains(tagged);
+            if (!Arrays.stream(CONTEXT.roots(c)).min(BigInteger::compareTo).orElseThrow().equals(tagged)) {
+                notSmallest++;
+            }
+            assertThat(CONTEXT.decryptTagged(c)).as("m = %d", m).isEqualTo(message);
+        }
+        assertThat(notSmallest).isPositive();
+    }
+
+    @Test
+    void blockWithoutTheTagIsRejected() {
+        Random random = new Random(17);
+        for (int i = 0; i < 20; i++) {
+            BigInteger c = new BigInteger(CONTEXT.n().bitLength() - 1, random).modPow(BigInteger.TWO, CONTEXT.n());
+
+            assertThat(CONTEXT.roots(c)).noneMatch(RabinRedundancy::isTagged);
+            assertThatThrownBy(() -> CONTEXT.decryptTagged(c))
+                    .isInstanceOf(CryptoOperationException.class)
+                    .hasMessage("No square root carries the redundancy tag");
+        }
+    }
+
+    /**
+     * Without the tag a block of the full plain width (10 bytes here) is
+     * decoded to the smallest root, which for many blocks is one of the
+     * other three.
+     */
+    @Test
+    void smallestRootMisdecodesUntaggedBlocks() {
+        BigInteger n = CONTEXT.n();
+        Random random = new Random(80);
+        int misdecoded = 0;
+        for (int i = 0; i < 100; i++) {
+            BigInteger block = new BigInteger(80, random);
+            BigInteger c = block.modPow(BigInteger.TWO, n);
+
+            assertThat(CONTEXT.roots(c)).contains(block);
+            if (!CONTEXT.decrypt(c).equals(block)) {
+                misdecoded++;
+            }
+        }
+        assertThat(misdecoded).isPositive();
+    }
+
+    @Test
+    void tagRoundTrips() {
+        BigInteger message = new BigInteger("123456789abcdef0123", 16);
+        BigInteger tagged = RabinRedundancy.tag(message);
+
+        assertThat(tagged.bitLength()).isEqualTo(message.bitLength() + RabinRedundancy.TAG_BITS);
+        assertThat(RabinRedundancy.isTagged(tagged)).isTrue();
+        assertThat(RabinRedundancy.isTagged(tagged.add(BigInteger.ONE))).isFalse();
+        assertThat(RabinRedundancy.untag(tagged)).isEqualTo(message);
+    }
+}
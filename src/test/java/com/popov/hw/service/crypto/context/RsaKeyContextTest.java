@@ -0,0 +1,124 @@
+package com.popov.hw.service.crypto.context;
+
+import com.popov.hw.model.RsaParameters;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RsaKeyContextTest {
+
+    private static final BigInteger E = BigInteger.valueOf(65537);
+    private static final int KEYS = 8;
+    private static final int CIPHERTEXTS = 32;
+
+    @ParameterizedTest
+    @ValueSource(ints = {64, 512, 1024, 2048})
+    void crtDecryptionMatchesPlainDecryption(int modulusBits) {
+        Random random = new Random(modulusBits);
+        for (int k = 0; k < KEYS; k++) {
+            RsaParameters full = randomKey(modulusBits, random);
+            RsaParameters plainOnly = RsaParameters.builder().e(full.e()).n(full.n()).d(full.d()).build();
+
+            RsaKeyContext crt = RsaKeyContext.from(full);
+            RsaKeyContext plain = RsaKeyContext.from(plainOnly);
+            assertThat(crt.isCrtEnabled()).isTrue();
+            assertThat(plain.isCrtEnabled()).isFalse();
+
+            for (BigInteger c : ciphertexts(full.n(), random)) {
+                assertThat(crt.decrypt(c)).as("c = %s", c).isEqualTo(plain.decrypt(c));
+                assertThat(crt.decrypt(c)).as("c = %s", c).isEqualTo(c.modPow(full.d(), full.n()));
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {64, 1024})
+    void decryptionInvertsEncryption(int modulusBits) {
+        Random random = new Random(-modulusBits);
+        RsaParameters key = randomKey(modulusBits, random);
+        RsaKeyContext context = RsaKeyContext.from(key);
+
+        for (BigInteger m : ciphertexts(key.n(), random)) {
+            assertThat(context.decrypt(m.modPow(key.e(), key.n()))).isEqualTo(m);
+        }
+    }
+
+    @Test
+    void compositePrimeFallsBackToPlainDecryption() {
+        BigInteger p = BigInteger.valueOf(91);
+        BigInteger q = BigInteger.valueOf(11);
+        BigInteger n = p.multiply(q);
+        BigInteger d = BigInteger.valueOf(7).modInverse(BigInteger.valueOf(900));
+        RsaKeyContext context = RsaKeyContext.from(
+                RsaParameters.builder().e(BigInteger.valueOf(7)).p(p).q(q).n(n).d(d).build());
+
+        assertThat(context.isCrtEnabled()).isFalse();
+        for (int c = 0; c < n.intValueExact(); c++) {
+            BigInteger value = BigInteger.valueOf(c);
+            assertThat(context.decrypt(value)).isEqualTo(value.modPow(d, n));
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {64, 1024})
+    void restoredCrtPartsDecryptLikeDerivedOnes(int modulusBits) {
+        Random random = new Random(modulusBits + 1);
+        RsaParameters key = randomKey(modulusBits, random);
+        RsaKeyContext derived = RsaKeyContext.from(key);
+        RsaKeyContext restored = RsaKeyContext.restore(key, derived.crtParts());
+
+        assertThat(restored.isCrtEnabled()).isTrue();
+        for (BigInteger c : ciphertexts(key.n(), random)) {
+            assertThat(restored.decrypt(c)).isEqualTo(derived.decrypt(c));
+        }
+    }
+
+    @Test
+    void crtPartsOfAnotherKeyAreRejected() {
+        Random random = new Random(5);
+        RsaParameters key = randomKey(512, random);
+        RsaKeyContext.CrtParts other = RsaKeyContext.from(randomKey(512, random)).crtParts();
+
+        assertThatThrownBy(() -> RsaKeyContext.restore(key, other)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static RsaParameters randomKey(int modulusBits, Random random) {
+        while (true) {
+            BigInteger p = BigInteger.probablePrime(modulusBits / 2, random);
+            BigInteger q = BigInteger.probablePrime(modulusBits - modulusBits / 2, random);
+            BigInteger phi = p.subtract(BigInteger.ONE).multiply(q.subtract(BigInteger.ONE));
+            if (p.equals(q) || !phi.gcd(E).equals(BigInteger.ONE)) {
+                continue;
+            }
+            return RsaParameters.builder()
+                    .e(E)
+                    .p(p)
+                    .q(q)
+                    .n(p.multiply(q))
+                    .d(E.modInverse(phi))
+                    .build();
+        }
+    }
+
+    /**
+     * Random values below {@code n} plus the edge values 0, 1 and n - 1.
+     */
+    private static List<BigInteger> ciphertexts(BigInteger n, Random random) {
+        List<BigInteger> values = new ArrayList<>(List.of(BigInteger.ZERO, BigInteger.ONE, n.subtract(BigInteger.ONE)));
+        while (values.size() < CIPHERTEXTS) {
+            BigInteger c = new BigInteger(n.bitLength(), random);
+            if (c.compareTo(n) < 0) {
+                values.add(c);
+            }
+        }
+        return values;
+    }
+}
@@ -0,0 +1,150 @@
+package com.popov.hw.service.crypto.random;
+
+import com.popov.hw.config.CryptoProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class NonceStreamTest {
+
+    private static final Executor INLINE = Runnable::run;
+    private static final Executor REJECTING = task -> {
+        throw new RejectedExecutionException("refill rejected");
+    };
+
+    private final RecordingSupply supply = new RecordingSupply();
+
+    @AfterEach
+    void close() {
+        supply.close();
+    }
+
+    @Test
+    void scalarsStayInTheHalfOpenRange() {
+        BigInteger origin = BigInteger.valueOf(5);
+        NonceStream stream = new NonceStream(origin, BigInteger.valueOf(8), 16, INLINE, supply);
+
+        int[] counts = new int[3];
+        for (int i = 0; i < 30_000; i++) {
+            BigInteger scalar = stream.next();
+            assertThat(scalar).isGreaterThanOrEqualTo(origin).isLessThan(BigInteger.valueOf(8));
+            counts[scalar.intValue() - 5]++;
+        }
+        for (int count : counts) {
+            assertThat(count).isBetween(9_400, 10_600);
+        }
+    }
+
+    @Test
+    void singleValueRangeAlwaysYieldsOrigin() {
+        NonceStream stream = new NonceStream(BigInteger.TEN, BigInteger.valueOf(11), 4, INLINE, supply);
+
+        for (int i = 0; i < 20; i++) {
+            assertThat(stream.next()).isEqualTo(BigInteger.TEN);
+        }
+    }
+
+    /**
+     * The random value is {@link NonceStream#EXTRA_BITS} longer than the
+     * span, rounded up to whole bytes.
+     */
+    @Test
+    void randomValuesAreWiderThanTheSpan() {
+        BigInteger origin = BigInteger.ONE;
+        for (BigInteger span : List.of(BigInteger.ONE, BigInteger.valueOf(3), BigInteger.valueOf(255),
+                BigInteger.valueOf(256), BigInteger.ONE.shiftLeft(64), BigInteger.ONE.shiftLeft(255).add(BigInteger.ONE))) {
+            supply.lengths.clear();
+            new NonceStream(origin, origin.add(span), 8, REJECTING, supply).next();
+
+            int width = (span.bitLength() + NonceStream.EXTRA_BITS + 7) / 8;
+            assertThat(supply.lengths).as("span = %s", span).containsExactly(width);
+            assertThat(8 * width).isGreaterThanOrEqualTo(span.bitLength() + NonceStream.EXTRA_BITS);
+        }
+    }
+
+    @Test
+    void rejectedRefillFallsBackToTheCaller() {
+        BigInteger bound = BigInteger.valueOf(4);
+        CountingExecutor rejecting = new CountingExecutor(REJECTING);
+        NonceStream stream = new NonceStream(BigInteger.ZERO, bound, 8, rejecting, supply);
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(stream.next()).isLessThan(bound);
+        }
+        assertThat(rejecting.calls).isEqualTo(10);
+        assertThat(supply.lengths).hasSize(10).containsOnly(9);
+    }
+
+    @Test
+    void emptyQueueFallsBackUntilTheRefillHasRun() {
+        List<Runnable> pending = new ArrayList<>();
+        NonceStream stream = new NonceStream(BigInteger.ZERO, BigInteger.valueOf(4), 8, pending::add, supply);
+
+        stream.next();
+        stream.next();
+        assertThat(pending).hasSize(1);
+        assertThat(supply.lengths).containsExactly(9, 9);
+
+        pending.remove(0).run();
+        assertThat(supply.lengths).containsExactly(9, 9, 2 * 9, 2 * 9, 2 * 9, 2 * 9);
+
+        supply.lengths.clear();
+        for (int i = 0; i < 8; i++) {
+            stream.next();
+        }
+        assertThat(supply.lengths).isEmpty();
+        assertThat(pending).hasSize(1);
+    }
+
+    @Test
+    void emptyRangeIsRejected() {
+        assertThatThrownBy(() -> supply.stream(BigInteger.TEN, BigInteger.TEN))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /**
+     * Deterministic bytes that records every requested length.
+     */
+    private static final class RecordingSupply extends NonceSupply {
+
+        private final Random random = new Random(21);
+        private final List<Integer> lengths = new ArrayList<>();
+
+        RecordingSupply() {
+            super(new CryptoProperties(0, 0, null, false, 0, false, 0, 0, 0));
+        }
+
+        @Override
+        byte[] randomBytes(int length) {
+            lengths.add(length);
+            byte[] bytes = new byte[length];
+            random.nextBytes(bytes);
+            return bytes;
+        }
+    }
+
+    private static final class CountingExecutor implements Executor {
+
+        private final Executor delegate;
+        private int calls;
+
+        private CountingExecutor(Executor delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            calls++;
+            delegate.execute(command);
+        }
+    }
+}